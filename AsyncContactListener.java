@@ -0,0 +1,83 @@
+import java.util.concurrent.*;
+
+/**
+ * AsyncContactListener class delivering events to another listener on a
+ * background thread
+ * The manager only queues the event and returns; one daemon thread calls
+ * the wrapped listener in the original order. close() delivers whatever
+ * is still queued before returning.
+ */
+public class AsyncContactListener implements ContactListener, AutoCloseable {
+    private final ContactListener target;
+    private final ExecutorService executor;
+    
+    public AsyncContactListener(ContactListener target) {
+        this.target = target;
+        this.executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "contact-listener");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+    
+    @Override
+    public void operationCompleted(OperationResult result) {
+        deliver(() -> target.operationCompleted(result));
+    }
+    
+    @Override
+    public void batchCompleted(VaultMetrics.Operation operation, OperationResult[] results) {
+        deliver(() -> target.batchCompleted(operation, results));
+    }
+    
+    @Override
+    public void sortOrderChanged(String order) {
+        deliver(() -> target.sortOrderChanged(order));
+    }
+    
+    @Override
+    public void contactsImported(String filename, ImportReport report) {
+        deliver(() -> target.contactsImported(filename, report));
+    }
+    
+    @Override
+    public void importFailed(String filename, Exception error) {
+        deliver(() -> target.importFailed(filename, error));
+    }
+    
+    @Override
+    public void contactsExported(String filename, int count) {
+        deliver(() -> target.contactsExported(filename, count));
+    }
+    
+    @Override
+    public void exportFailed(String filename, Exception error) {
+        deliver(() -> target.exportFailed(filename, error));
+    }
+    
+    @Override
+    public void journalCompactionFailed(Exception error) {
+        deliver(() -> target.journalCompactionFailed(error));
+    }
+    
+    // Deliver all queued events, then stop; later events are dropped. If the
+    // caller is interrupted while waiting, it returns early with its
+    // interrupt flag set and the remaining events are still delivered.
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    private void deliver(Runnable event) {
+        try {
+            executor.execute(event);
+        } catch (RejectedExecutionException e) {
+            // Closed: nobody is listening any more
+        }
+    }
+}
@@ -0,0 +1,542 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * ConcurrentContactManager class for sharing one vault between threads
+ * Keeps the ContactManager API; read operations (get, search, list,
+ * export) take a per-thread read stripe so they run in parallel, while
+ * every mutation takes the exclusive write lock. Duplicate checks and the
+ * insert happen under that one write lock, so racing writers can never
+ * store two contacts with the same phone or email.
+ * streamSearch is inherited unlocked on purpose: it fetches each page
+ * through the locked searchPage, so no lock is held between pages.
+ */
+public class ConcurrentContactManager extends ContactManager {
+    private final StripedReadWriteLock locks;
+    
+    public ConcurrentContactManager() {
+        this(new StripedReadWriteLock());
+    }
+    
+    public ConcurrentContactManager(StripedReadWriteLock locks) {
+        this.locks = locks;
+    }
+    
+    @Override
+    public OperationResult addContact(Contact contact) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.addContact(contact);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Contact getContact(int index) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContact(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getPosition(Contact contact) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getPosition(contact);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Contact getContactById(long id) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContactById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Contact getContactByPhone(String phone) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContactByPhone(phone);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Contact getContactByEmail(String email) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContactByEmail(email);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> getContacts(int offset, int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContacts(offset, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult updateContact(int index, Contact updatedContact) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.updateContact(index, updatedContact);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult updateContactById(long id, Contact updatedContact) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.updateContactById(id, updatedContact);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult deleteContact(int index) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.deleteContact(index);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult deleteContactById(long id) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.deleteContactById(id);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult[] addAll(List<Contact> batch, BatchMode mode) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.addAll(batch, mode);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult[] updateAll(long[] ids, List<Contact> updatedContacts, BatchMode mode) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.updateAll(ids, updatedContacts, mode);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public OperationResult[] deleteAll(long[] ids, BatchMode mode) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.deleteAll(ids, mode);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> searchContacts(String keyword) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.searchContacts(keyword);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ContactPage searchPage(String keyword, String token, int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.searchPage(keyword, token, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> autocomplete(String prefix, int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.autocomplete(prefix, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> findByPhonePrefix(String prefix, int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.findByPhonePrefix(prefix, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> findByPhoneSuffix(String suffix, int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.findByPhoneSuffix(suffix, limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<Contact> findByDomain(String domain) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.findByDomain(domain);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getDomainCount(String domain) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getDomainCount(domain);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public LinkedHashMap<String, Integer> getTopDomains(int limit) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getTopDomains(limit);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<ArrayList<Contact>> findDuplicates() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.findDuplicates();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ArrayList<ArrayList<Contact>> findDuplicates(double threshold) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.findDuplicates(threshold);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void sortContactsByName() {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.sortContactsByName();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void sortContactsByPhone() {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.sortContactsByPhone();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void clearSortOrder() {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.clearSortOrder();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public long openJournal(String filename) throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.openJournal(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public long openJournal(String filename, int syncBatchSize, long syncIntervalMillis) throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.openJournal(filename, syncBatchSize, syncIntervalMillis);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void saveSnapshot(String filename) throws IOException {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            super.saveSnapshot(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int loadSnapshot(String filename) throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.loadSnapshot(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void syncJournal() throws IOException {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            super.syncJournal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void compactJournal() throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.compactJournal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void closeJournal() throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.closeJournal();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean exportToFile(String filename) {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.exportToFile(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void exportCsv(String filename, boolean gzip) throws IOException {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            super.exportCsv(filename, gzip);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void exportCsv(OutputStream out) throws IOException {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            super.exportCsv(out);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean importFromFile(String filename) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.importFromFile(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ImportReport importCsv(String filename) throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.importCsv(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public ImportReport importMapped(String filename) throws IOException {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            return super.importMapped(filename);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public VaultStatistics getStatistics() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getStatistics();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public int getContactCount() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getContactCount();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public boolean isEmpty() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.isEmpty();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void addListener(ContactListener listener) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.addListener(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public void removeListener(ContactListener listener) {
+        Lock lock = locks.writeLock();
+        lock.lock();
+        try {
+            super.removeListener(listener);
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public VaultMetrics getMetrics() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getMetrics();
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public QueryCache getQueryCache() {
+        Lock lock = locks.readLock();
+        lock.lock();
+        try {
+            return super.getQueryCache();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
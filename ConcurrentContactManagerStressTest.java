@@ -0,0 +1,149 @@
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Stress test for ConcurrentContactManager
+ * 1. Racing writers insert overlapping contacts; the store must end up with
+ *    exactly one contact per phone/email.
+ * 2. Reader threads search while one writer keeps adding and deleting; read
+ *    throughput is reported per thread count to show how reads scale.
+ *
+ * Usage: java ConcurrentContactManagerStressTest [contacts] [secondsPerRun]
+ */
+public class ConcurrentContactManagerStressTest {
+    public static void main(String[] args) throws Exception {
+        int contactCount = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        int cores = Runtime.getRuntime().availableProcessors();
+        
+        PrintStream console = System.out;
+        console.println("=".repeat(60));
+        console.println("     CONCURRENT CONTACT MANAGER - STRESS TEST");
+        console.println("=".repeat(60));
+        console.println("Cores: " + cores + ", contacts: " + contactCount + ", seconds per run: " + seconds);
+        
+        boolean unique = testRacingWriters(console, Math.max(4, cores * 2), 20_000);
+        testReadScaling(console, contactCount, seconds, cores);
+        
+        console.println("\n" + "=".repeat(60));
+        console.println(unique ? "           STRESS TEST PASSED" : "           STRESS TEST FAILED");
+        console.println("=".repeat(60));
+    }
+    
+    // Every writer tries to insert the same key space; duplicates must all be rejected
+    private static boolean testRacingWriters(PrintStream console, int writers, int keys) throws Exception {
+        console.println("\n1. Racing writers (" + writers + " threads, " + keys + " keys each):");
+        console.println("-".repeat(40));
+        
+        ConcurrentContactManager manager = new ConcurrentContactManager();
+        ExecutorService pool = Executors.newFixedThreadPool(writers);
+        AtomicLong accepted = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ArrayList<Future<?>> futures = new ArrayList<>();
+        
+        for (int w = 0; w < writers; w++) {
+            final int writer = w;
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < keys; i++) {
+                    // Even writers clash on phone, odd writers on email
+                    String phone = writer % 2 == 0 ? phone(i) : phone(keys * (writer + 1) + i);
+                    String email = writer % 2 == 0 ? "w" + writer + "." + i + "@race.com" : "user" + i + "@race.com";
+                    if (manager.addContact(new Contact("Racer " + writer + " " + i, phone, email)).isSuccess()) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        pool.shutdown();
+        
+        HashSet<String> phones = new HashSet<>();
+        HashSet<String> emails = new HashSet<>();
+        boolean unique = true;
+        for (int i = 0; i < manager.getContactCount(); i++) {
+            Contact contact = manager.getContact(i);
+            unique &= phones.add(contact.getNormalizedPhone());
+            unique &= emails.add(contact.getEmail().toLowerCase());
+        }
+        unique &= accepted.get() == manager.getContactCount();
+        
+        console.println("Accepted: " + accepted.get() + ", stored: " + manager.getContactCount());
+        console.println("Unique phones and emails: " + (unique ? "yes" : "NO"));
+        return unique;
+    }
+    
+    // Readers search continuously while a single writer adds and deletes
+    private static void testReadScaling(PrintStream console, int contactCount, int seconds, int cores)
+            throws Exception {
+        console.println("\n2. Read scaling with one concurrent writer:");
+        console.println("-".repeat(40));
+        
+        ConcurrentContactManager manager = new ConcurrentContactManager();
+        for (int i = 0; i < contactCount; i++) {
+            manager.addContact(new Contact("Person " + i, phone(i), "person" + i + "@example.com"));
+        }
+        
+        double baseline = 0;
+        for (int threads = 1; threads <= cores * 2; threads *= 2) {
+            double throughput = runReaders(manager, threads, seconds, contactCount);
+            if (threads == 1) {
+                baseline = throughput;
+            }
+            console.printf("%3d reader(s): %,12.0f reads/s  (x%.2f)%n", threads, throughput, throughput / baseline);
+        }
+    }
+    
+    private static double runReaders(ConcurrentContactManager manager, int threads, int seconds, int contactCount)
+            throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads + 1);
+        AtomicLong reads = new AtomicLong();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        
+        Future<?> writer = pool.submit(() -> {
+            int next = contactCount;
+            while (System.nanoTime() < deadline) {
+                manager.addContact(new Contact("Writer " + next, phone(next), "writer" + next + "@example.com"));
+                manager.deleteContact(manager.getContactCount() - 1);
+                next++;
+                Thread.sleep(1); // "Few writers": about a thousand changes per second
+            }
+            return null;
+        });
+        
+        ArrayList<Future<?>> readers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            final long seed = t;
+            readers.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                long count = 0;
+                while (System.nanoTime() < deadline) {
+                    int i = random.nextInt(contactCount);
+                    manager.searchContacts("person" + i + "@");
+                    manager.findByPhoneSuffix(phone(i).substring(3), 5);
+                    manager.getContact(i);
+                    count += 3;
+                }
+                reads.addAndGet(count);
+                return null;
+            }));
+        }
+        
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        writer.get();
+        pool.shutdown();
+        return reads.get() / (double) seconds;
+    }
+    
+    private static String phone(long i) {
+        return String.format("%010d", 1_000_000_000L + i);
+    }
+}
@@ -0,0 +1,123 @@
+import java.io.PrintStream;
+import java.util.List;
+
+/**
+ * ConsoleContactListener class printing ContactManager events for the
+ * console UI, with the same messages the manager used to print itself
+ * It also renders contact lists and search results, which the manager
+ * only returns as data.
+ */
+public class ConsoleContactListener implements ContactListener {
+    // Contacts fetched from the manager at a time while listing all of them
+    private static final int LIST_PAGE_SIZE = 256;
+    
+    private final PrintStream out;
+    
+    public ConsoleContactListener() {
+        this(System.out);
+    }
+    
+    public ConsoleContactListener(PrintStream out) {
+        this.out = out;
+    }
+    
+    @Override
+    public void operationCompleted(OperationResult result) {
+        for (String warning : result.getWarnings()) {
+            out.println("Warning: " + warning);
+        }
+        out.println(result.getMessage());
+    }
+    
+    @Override
+    public void batchCompleted(VaultMetrics.Operation operation, OperationResult[] results) {
+        int applied = 0;
+        for (OperationResult result : results) {
+            if (result.isSuccess()) {
+                applied++;
+            }
+        }
+        String verb = operation == VaultMetrics.Operation.ADD_ALL ? "Added"
+                : operation == VaultMetrics.Operation.UPDATE_ALL ? "Updated" : "Deleted";
+        out.println(verb + " " + applied + " of " + results.length + " contacts ("
+                + (results.length - applied) + " rejected)");
+    }
+    
+    @Override
+    public void sortOrderChanged(String order) {
+        if (!order.equals("insertion")) {
+            out.println("Contacts sorted by " + order + "!");
+        }
+    }
+    
+    @Override
+    public void contactsImported(String filename, ImportReport report) {
+        out.println("Imported " + report.getAccepted() + " contacts from " + filename);
+        if (report.getRejected() > 0) {
+            out.println("Skipped " + report.getDuplicates() + " duplicate, " + report.getInvalid()
+                    + " invalid and " + report.getMalformed() + " malformed row(s)");
+        }
+    }
+    
+    @Override
+    public void importFailed(String filename, Exception error) {
+        out.println("Error importing contacts: " + error.getMessage());
+    }
+    
+    @Override
+    public void contactsExported(String filename, int count) {
+        out.println("Contacts exported to " + filename + " successfully!");
+    }
+    
+    @Override
+    public void exportFailed(String filename, Exception error) {
+        out.println("Error exporting contacts: " + error.getMessage());
+    }
+    
+    @Override
+    public void journalCompactionFailed(Exception error) {
+        out.println("Warning: Journal compaction failed: " + error.getMessage());
+    }
+    
+    // Print every contact of a manager in its current sort order
+    public void displayAllContacts(ContactManager manager) {
+        if (manager.isEmpty()) {
+            out.println("No contacts found!");
+            return;
+        }
+        
+        out.println("\n" + "=".repeat(70));
+        out.println("                    ALL CONTACTS");
+        out.println("=".repeat(70));
+        
+        int position = 0;
+        List<Contact> page;
+        while (!(page = manager.getContacts(position, LIST_PAGE_SIZE)).isEmpty()) {
+            for (Contact contact : page) {
+                out.printf("[%d] %s%n", ++position, contact);
+            }
+        }
+        out.println("=".repeat(70));
+        out.println("Total contacts: " + manager.getContactCount());
+    }
+    
+    // Print the contacts matching a keyword with their positions
+    public void displaySearchResults(ContactManager manager, String keyword) {
+        List<Contact> results = manager.searchContacts(keyword);
+        
+        if (results.isEmpty()) {
+            out.println("No contacts found matching: " + keyword);
+            return;
+        }
+        
+        out.println("\n" + "=".repeat(70));
+        out.println("           SEARCH RESULTS FOR: " + keyword.toUpperCase());
+        out.println("=".repeat(70));
+        
+        for (Contact contact : results) {
+            out.printf("[%d] %s%n", manager.getPosition(contact) + 1, contact);
+        }
+        out.println("=".repeat(70));
+        out.println("Found " + results.size() + " contact(s)");
+    }
+}
@@ -1,17 +1,40 @@
 /**
  * Contact class representing a single contact with name, phone, and email
  * Implements encapsulation and validation
+ * Two contacts are equal when both their PhoneKey and EmailKey are equal, so
+ * equal contacts always have equal hash codes; the looser "same phone or
+ * same email" rule used for duplicate checks is isDuplicateOf. Contacts kept
+ * in hash sets or maps must not have their phone or email changed.
  */
 public class Contact {
     private String name;
     private String phone;
     private String email;
     
+    // Normalized identity keys, computed once per phone / email change
+    private PhoneKey phoneKey;
+    private EmailKey emailKey;
+    
+    // Validation and text properties, computed once per field change
+    private boolean validPhone;
+    private boolean validEmail;
+    private boolean asciiName;
+    private boolean asciiEmail;
+    
+    // Stable ID assigned by the ContactManager that stores this contact (0 = not stored)
+    private long id;
+    
     // Constructor
     public Contact(String name, String phone, String email) {
         this.name = name != null ? name.trim() : "";
         this.phone = phone != null ? phone.trim() : "";
         this.email = email != null ? email.trim() : "";
+        this.phoneKey = PhoneKey.of(this.phone);
+        this.emailKey = EmailKey.of(this.email);
+        this.validPhone = isPhoneFormat(this.phone);
+        this.validEmail = isEmailFormat(this.email);
+        this.asciiName = isAscii(this.name);
+        this.asciiEmail = isAscii(this.email);
     }
     
     // Getters
@@ -27,17 +50,53 @@ public class Contact {
         return email;
     }
     
+    // Normalized phone (see normalizePhone), cached
+    public String getNormalizedPhone() {
+        return phoneKey.getValue();
+    }
+    
+    public PhoneKey getPhoneKey() {
+        return phoneKey;
+    }
+    
+    public EmailKey getEmailKey() {
+        return emailKey;
+    }
+    
+    public long getId() {
+        return id;
+    }
+    
+    // Only ContactManager assigns IDs
+    void setId(long id) {
+        this.id = id;
+    }
+    
+    // Switch to an equal, shared name instance (ContactManager interns the
+    // names of stored contacts, which repeat a lot)
+    void shareName(String canonical) {
+        if (canonical.equals(name)) {
+            name = canonical;
+        }
+    }
+    
     // Setters with validation
     public void setName(String name) {
         this.name = name != null ? name.trim() : "";
+        this.asciiName = isAscii(this.name);
     }
     
     public void setPhone(String phone) {
         this.phone = phone != null ? phone.trim() : "";
+        this.phoneKey = PhoneKey.of(this.phone);
+        this.validPhone = isPhoneFormat(this.phone);
     }
     
     public void setEmail(String email) {
         this.email = email != null ? email.trim() : "";
+        this.emailKey = EmailKey.of(this.email);
+        this.validEmail = isEmailFormat(this.email);
+        this.asciiEmail = isAscii(this.email);
     }
     
     // Validation methods
@@ -46,33 +105,118 @@ public class Contact {
     }
     
     public boolean isValidEmail() {
-        return email.contains("@") && email.contains(".");
+        return validEmail;
     }
     
     public boolean isValidPhone() {
-        return phone.matches("\\d{10}") || phone.matches("\\+?\\d{10,15}");
+        return validPhone;
+    }
+    
+    // Email contains '@' and '.'
+    private static boolean isEmailFormat(String email) {
+        return email.indexOf('@') >= 0 && email.indexOf('.') >= 0;
     }
     
-    // Method to check if contact matches search keyword
+    // 10 to 15 digits with an optional leading plus
+    private static boolean isPhoneFormat(String phone) {
+        int start = phone.startsWith("+") ? 1 : 0;
+        int digits = phone.length() - start;
+        if (digits < 10 || digits > 15) {
+            return false;
+        }
+        for (int i = start; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Normalized phone used as the duplicate-detection key (digits only)
+    public static String normalizePhone(String phone) {
+        if (phone == null) {
+            return "";
+        }
+        
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9') {
+                digits.append(c);
+            }
+        }
+        if (digits.length() == phone.length()) {
+            return phone; // Already normalized: the key shares the phone text
+        }
+        
+        // Numbers without any digits fall back to their trimmed text
+        return digits.length() > 0 ? digits.toString() : phone.trim();
+    }
+    
+    // Lower-cased email used as the duplicate-detection key
+    public static String normalizeEmail(String email) {
+        return email != null ? email.trim().toLowerCase() : "";
+    }
+    
+    // Method to check if contact matches search keyword (case-insensitive
+    // for name and email); allocation-free when the text is ASCII
     public boolean matches(String keyword) {
-        String lowerKeyword = keyword.toLowerCase();
-        return name.toLowerCase().contains(lowerKeyword) ||
+        boolean asciiKeyword = isAscii(keyword);
+        return containsIgnoreCase(name, asciiName && asciiKeyword, keyword) ||
                phone.contains(keyword) ||
-               email.toLowerCase().contains(lowerKeyword);
+               containsIgnoreCase(email, asciiEmail && asciiKeyword, keyword);
+    }
+    
+    // text.toLowerCase().contains(keyword.toLowerCase()), folding ASCII
+    // letters in place when both sides are ASCII
+    private static boolean containsIgnoreCase(String text, boolean ascii, String keyword) {
+        if (!ascii) {
+            return text.toLowerCase().contains(keyword.toLowerCase());
+        }
+        int last = text.length() - keyword.length();
+        outer:
+        for (int i = 0; i <= last; i++) {
+            for (int j = 0; j < keyword.length(); j++) {
+                if (toLowerAscii(text.charAt(i + j)) != toLowerAscii(keyword.charAt(j))) {
+                    continue outer;
+                }
+            }
+            return true;
+        }
+        return false;
     }
     
-    // Override equals for duplicate checking
+    private static char toLowerAscii(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+    
+    private static boolean isAscii(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            if (value.charAt(i) >= 0x80) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Duplicate check: same normalized phone or same email (ignoring case)
+    public boolean isDuplicateOf(Contact other) {
+        return phoneKey.equals(other.phoneKey) || emailKey.equals(other.emailKey);
+    }
+    
+    // Same normalized phone and same email, consistent with hashCode
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
         if (obj == null || getClass() != obj.getClass()) return false;
         Contact contact = (Contact) obj;
-        return phone.equals(contact.phone) || email.equalsIgnoreCase(contact.email);
+        return phoneKey.equals(contact.phoneKey) && emailKey.equals(contact.emailKey);
     }
     
     @Override
     public int hashCode() {
-        return phone.hashCode() + email.toLowerCase().hashCode();
+        return 31 * phoneKey.hashCode() + emailKey.hashCode();
     }
     
     @Override
@@ -80,8 +224,12 @@ public class Contact {
         return String.format("Name: %-20s | Phone: %-15s | Email: %-25s", name, phone, email);
     }
     
-    // Method to get contact in CSV format for file export
+    // Method to get contact in CSV format for file export (quotes are doubled)
     public String toCSV() {
-        return String.format("\"%s\",\"%s\",\"%s\"", name, phone, email);
+        return quote(name) + "," + quote(phone) + "," + quote(email);
+    }
+    
+    private static String quote(String value) {
+        return "\"" + value.replace("\"", "\"\"") + "\"";
     }
 }
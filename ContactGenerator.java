@@ -0,0 +1,81 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * ContactGenerator class producing synthetic, reproducible contacts
+ * Contact i always gets the same values for the same seed. Names come from
+ * small first/last name pools and emails from a pool of domains, like real
+ * address books; phones and email local parts are unique per index, so any
+ * range of indexes can be added without duplicates.
+ */
+public class ContactGenerator {
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "William", "Elizabeth",
+        "David", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah", "Charles", "Karen",
+        "Priya", "Rahul", "Wei", "Mei", "Hiroshi", "Yuki", "Ahmed", "Fatima", "Carlos", "Sofia",
+        "Lucas", "Emma", "Noah", "Olivia", "Liam", "Ava", "Mateo", "Isabella", "Arjun", "Ananya"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez", "Martinez",
+        "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor", "Moore", "Jackson", "Martin",
+        "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez", "Lewis", "Robinson",
+        "Sharma", "Patel", "Wang", "Li", "Zhang", "Tanaka", "Sato", "Khan", "Silva", "Nguyen"
+    };
+    private static final String[] PUBLIC_DOMAINS = {"gmail.com", "yahoo.com", "outlook.com", "hotmail.com"};
+    private static final int COMPANY_DOMAINS = 2000;
+    
+    private final long seed;
+    
+    public ContactGenerator() {
+        this(42);
+    }
+    
+    public ContactGenerator(long seed) {
+        this.seed = seed;
+    }
+    
+    // Contact number index (0 <= index < 10^9)
+    public Contact contact(long index) {
+        long mixed = mix(index ^ seed);
+        String first = FIRST_NAMES[(int) Long.remainderUnsigned(mixed, FIRST_NAMES.length)];
+        String last = LAST_NAMES[(int) Long.remainderUnsigned(mixed >>> 16, LAST_NAMES.length)];
+        
+        int domainPick = (int) Long.remainderUnsigned(mixed >>> 32, 10);
+        String domain = domainPick < 6
+                ? PUBLIC_DOMAINS[domainPick % PUBLIC_DOMAINS.length]
+                : "company" + Long.remainderUnsigned(mixed >>> 40, COMPANY_DOMAINS) + ".com";
+        
+        // Multiplying by a number coprime to 10^10 permutes the 10-digit phones
+        long number = Long.remainderUnsigned(index * 7_919_345_143L + seed, 10_000_000_000L);
+        String phone = String.format("%010d", number);
+        String email = first.toLowerCase() + "." + last.toLowerCase() + index + "@" + domain;
+        return new Contact(first + " " + last, phone, email);
+    }
+    
+    // Contacts from..from+count-1
+    public ArrayList<Contact> contacts(long from, int count) {
+        ArrayList<Contact> contacts = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            contacts.add(contact(from + i));
+        }
+        return contacts;
+    }
+    
+    // Write contacts 0..count-1 as a CSV file in the export format
+    public void writeCsv(String filename, int count) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(filename), 1 << 16)) {
+            out.write("Name,Phone,Email\n".getBytes(StandardCharsets.US_ASCII));
+            for (int i = 0; i < count; i++) {
+                out.write(CsvExporter.encodeRow(contact(i)));
+            }
+        }
+    }
+    
+    // SplitMix64 finalizer: spreads consecutive indexes over all bits
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,430 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.zip.CRC32;
+
+/**
+ * ContactJournal class logging every change to a ContactManager
+ * Append-only write-ahead log: a header [int magic][long generation]
+ * followed by binary records
+ *   [int body length][body: op, long id, name, phone, email][int CRC32 of body]
+ * Strings are varint-length-prefixed UTF-8; delete records carry only the ID.
+ * A batch record (op BATCH, entry count in place of the ID) holds the
+ * bodies of several changes, so replay applies the whole batch or none of it.
+ * Records are buffered and written with group commit: one write and one
+ * fsync cover everything appended since the last sync, triggered after
+ * syncBatchSize records or syncIntervalMillis, whichever comes first.
+ * Replay stops at the first torn or corrupt record (what a crash in the
+ * middle of a write leaves behind) and cuts the file there.
+ * Compaction writes the live contacts to a VaultSnapshot next to the log
+ * (journal file name + ".snapshot") and then starts an empty log of the
+ * next generation; a log older than the snapshot is ignored on replay,
+ * so a crash between the two steps cannot apply changes twice.
+ */
+public class ContactJournal implements Closeable {
+    public static final int DEFAULT_SYNC_BATCH_SIZE = 256;
+    public static final long DEFAULT_SYNC_INTERVAL_MILLIS = 100;
+    
+    static final byte ADD = 1;
+    static final byte UPDATE = 2;
+    static final byte DELETE = 3;
+    static final byte BATCH = 4;
+    
+    private static final int MAGIC = 0x43564A4C; // "CVJL"
+    private static final int HEADER_SIZE = 12;
+    private static final int MAX_RECORD_SIZE = 256 * 1024 * 1024; // Room for batches of millions
+    private static final int MIN_COMPACT_RECORDS = 65536;
+    
+    private final Path path;
+    private final String snapshotFile;
+    private final int syncBatchSize;
+    private final CRC32 crc = new CRC32();
+    private final ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private int pendingRecords;
+    private long records; // Records in the file, used to decide when to compact
+    private long generation;
+    private IOException failure; // Set when a background sync fails
+    
+    // Open (or create) a journal; syncBatchSize 1 makes every change durable
+    // before the call returns, syncIntervalMillis 0 disables the timer
+    public ContactJournal(String filename, int syncBatchSize, long syncIntervalMillis) throws IOException {
+        if (syncBatchSize < 1) {
+            throw new IllegalArgumentException("Sync batch size must be at least 1");
+        }
+        this.path = Paths.get(filename);
+        this.snapshotFile = filename + ".snapshot";
+        this.syncBatchSize = syncBatchSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        
+        if (syncIntervalMillis > 0 && syncBatchSize > 1) {
+            flusher = Executors.newSingleThreadScheduledExecutor(task -> {
+                Thread thread = new Thread(task, "contact-journal-sync");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::syncInBackground, syncIntervalMillis, syncIntervalMillis,
+                    TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+    
+    // Restore the latest snapshot, if any, then apply every intact record of
+    // the log to the manager; returns the number of records applied
+    public synchronized long replay(ContactManager manager) throws IOException {
+        long snapshotGeneration = 0;
+        if (Files.exists(Paths.get(snapshotFile))) {
+            VaultSnapshot snapshot = VaultSnapshot.read(snapshotFile);
+            manager.restoreSnapshot(snapshot);
+            snapshotGeneration = snapshot.getGeneration();
+        }
+        
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+            // Keep reading until the header is complete or the file ends
+        }
+        header.flip();
+        if (header.remaining() == HEADER_SIZE && header.getInt(0) != MAGIC) {
+            throw new IOException("Not a contact journal: " + path);
+        }
+        if (header.remaining() < HEADER_SIZE || header.getLong(4) < snapshotGeneration) {
+            // New file, torn header, or changes the snapshot already holds
+            reset(snapshotGeneration);
+            return 0;
+        }
+        if (header.getLong(4) > 0 && !Files.exists(Paths.get(snapshotFile))) {
+            // The log only holds changes made after a compaction
+            throw new IOException("Journal " + path + " is of generation " + header.getLong(4)
+                    + " but its snapshot " + snapshotFile + " is missing");
+        }
+        generation = header.getLong(4);
+        
+        long good = HEADER_SIZE;
+        long replayed = 0;
+        long changes = 0;
+        channel.position(HEADER_SIZE);
+        DataInputStream in = new DataInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel), 1 << 20));
+        
+        while (true) {
+            byte[] body;
+            int checksum;
+            try {
+                int length = in.readInt();
+                if (length < 9 || length > MAX_RECORD_SIZE) {
+                    break;
+                }
+                body = new byte[length];
+                in.readFully(body);
+                checksum = in.readInt();
+            } catch (EOFException e) {
+                break; // Clean end of file or a torn last record
+            }
+            
+            crc.reset();
+            crc.update(body);
+            long applied = (int) crc.getValue() == checksum ? apply(ByteBuffer.wrap(body), manager) : -1;
+            if (applied < 0) {
+                break;
+            }
+            good += 4 + body.length + 4;
+            replayed++;
+            changes += applied;
+        }
+        
+        // Drop whatever follows the last intact record and append from there
+        channel.truncate(good);
+        channel.position(good);
+        records = changes; // Batches count per change, as in appendBatch
+        return replayed;
+    }
+    
+    // Log an add of a contact that will get the given ID
+    public void logAdd(long id, Contact contact) throws IOException {
+        append(ADD, id, contact);
+    }
+    
+    public void logUpdate(long id, Contact contact) throws IOException {
+        append(UPDATE, id, contact);
+    }
+    
+    public void logDelete(long id) throws IOException {
+        append(DELETE, id, null);
+    }
+    
+    // Log several adds (contacts[i] gets ids[i]) as one record
+    public void logAddAll(long[] ids, List<Contact> contacts) throws IOException {
+        appendBatch(ADD, ids, contacts);
+    }
+    
+    // Log several updates (ids[i] gets contacts[i]) as one record
+    public void logUpdateAll(long[] ids, List<Contact> contacts) throws IOException {
+        appendBatch(UPDATE, ids, contacts);
+    }
+    
+    // Log several deletes as one record
+    public void logDeleteAll(long[] ids) throws IOException {
+        appendBatch(DELETE, ids, null);
+    }
+    
+    // Write and fsync everything logged so far
+    public synchronized void sync() throws IOException {
+        checkUsable();
+        if (pendingRecords == 0) {
+            return;
+        }
+        pending.flip();
+        try {
+            while (pending.hasRemaining()) {
+                channel.write(pending);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        } finally {
+            pending.clear();
+            pendingRecords = 0;
+        }
+    }
+    
+    // True once replaying the log would cost more than loading a snapshot
+    public synchronized boolean needsCompaction(int liveContacts) {
+        return records >= MIN_COMPACT_RECORDS && records > liveContacts;
+    }
+    
+    // Write the live contacts (in ID order) to the snapshot, then start an
+    // empty log of the next generation
+    public synchronized void compact(Collection<Contact> live, long nextId) throws IOException {
+        sync();
+        VaultSnapshot.write(live, nextId, generation + 1, snapshotFile);
+        try {
+            reset(generation + 1);
+        } catch (IOException e) {
+            failure = e; // The log is in an unknown state; refuse further changes
+            throw e;
+        }
+    }
+    
+    @Override
+    public synchronized void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        if (channel.isOpen()) {
+            try {
+                sync();
+            } finally {
+                channel.close();
+            }
+        }
+    }
+    
+    // Truncate to an empty log of the given generation
+    private void reset(long newGeneration) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putLong(newGeneration).flip();
+        channel.truncate(0);
+        channel.position(0);
+        while (header.hasRemaining()) {
+            channel.write(header);
+        }
+        channel.force(false);
+        generation = newGeneration;
+        records = 0;
+    }
+    
+    private synchronized void append(byte op, long id, Contact contact) throws IOException {
+        checkUsable();
+        int mark = beginRecord();
+        putEntry(op, id, contact);
+        endRecord(mark);
+        
+        records++;
+        if (++pendingRecords >= syncBatchSize) {
+            sync();
+        }
+    }
+    
+    private synchronized void appendBatch(byte op, long[] ids, List<Contact> contacts) throws IOException {
+        checkUsable();
+        if (ids.length == 0) {
+            return;
+        }
+        int mark = beginRecord();
+        pending.put(BATCH).putLong(ids.length);
+        for (int i = 0; i < ids.length; i++) {
+            putEntry(op, ids[i], contacts != null ? contacts.get(i) : null);
+        }
+        if (pending.position() - mark - 4 > MAX_RECORD_SIZE) {
+            pending.position(mark);
+            throw new IOException("Batch of " + ids.length + " changes is too large for one journal record");
+        }
+        endRecord(mark);
+        
+        records += ids.length;
+        pendingRecords += ids.length;
+        if (pendingRecords >= syncBatchSize) {
+            sync();
+        }
+    }
+    
+    // Reserve the length field of a new record; returns its position
+    private int beginRecord() {
+        ensureRemaining(4 + 9);
+        int mark = pending.position();
+        pending.putInt(0);
+        return mark;
+    }
+    
+    // Fill in the length and append the CRC of the body written since mark
+    private void endRecord(int mark) {
+        int length = pending.position() - mark - 4;
+        pending.putInt(mark, length);
+        crc.reset();
+        crc.update(pending.array(), mark + 4, length);
+        ensureRemaining(4);
+        pending.putInt((int) crc.getValue());
+    }
+    
+    private void putEntry(byte op, long id, Contact contact) {
+        byte[] name = contact != null ? contact.getName().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] phone = contact != null ? contact.getPhone().getBytes(StandardCharsets.UTF_8) : null;
+        byte[] email = contact != null ? contact.getEmail().getBytes(StandardCharsets.UTF_8) : null;
+        ensureRemaining(9 + fieldSize(name) + fieldSize(phone) + fieldSize(email));
+        pending.put(op).putLong(id);
+        putField(name);
+        putField(phone);
+        putField(email);
+    }
+    
+    private void ensureRemaining(int bytes) {
+        if (pending.remaining() < bytes) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + bytes));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+    }
+    
+    // Decode one record body into the manager; returns the number of changes
+    // it held, or -1 if it does not make sense
+    private static long apply(ByteBuffer body, ContactManager manager) {
+        if (body.get(0) != BATCH) {
+            return applyEntry(body, manager) && !body.hasRemaining() ? 1 : -1;
+        }
+        
+        // Check every entry before applying any, so a batch is never half-applied
+        body.get();
+        long count = body.getLong();
+        int entries = body.position();
+        for (long i = 0; i < count; i++) {
+            if (!applyEntry(body, null)) {
+                return -1;
+            }
+        }
+        if (body.hasRemaining()) {
+            return -1;
+        }
+        body.position(entries);
+        for (long i = 0; i < count; i++) {
+            applyEntry(body, manager);
+        }
+        return count;
+    }
+    
+    // Decode one change and apply it unless manager is null (validation only)
+    private static boolean applyEntry(ByteBuffer body, ContactManager manager) {
+        if (body.remaining() < 9) {
+            return false;
+        }
+        byte op = body.get();
+        long id = body.getLong();
+        if (op == DELETE) {
+            if (manager != null) {
+                manager.discardContact(id);
+            }
+        } else if (op == ADD || op == UPDATE) {
+            String name = getField(body);
+            String phone = getField(body);
+            String email = getField(body);
+            if (name == null || phone == null || email == null) {
+                return false;
+            }
+            if (manager != null) {
+                manager.restoreContact(id, new Contact(name, phone, email));
+            }
+        } else {
+            return false;
+        }
+        return true;
+    }
+    
+    private void syncInBackground() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // Kept in failure and reported by the next change
+        }
+    }
+    
+    private void checkUsable() throws IOException {
+        if (!channel.isOpen()) {
+            throw new IOException("Journal is closed");
+        }
+        if (failure != null) {
+            throw new IOException("Journal sync failed earlier: " + failure.getMessage(), failure);
+        }
+    }
+    
+    private static int fieldSize(byte[] field) {
+        if (field == null) {
+            return 0;
+        }
+        int size = 1;
+        for (int length = field.length; length >= 0x80; length >>>= 7) {
+            size++;
+        }
+        return size + field.length;
+    }
+    
+    private void putField(byte[] field) {
+        if (field == null) {
+            return;
+        }
+        int length = field.length;
+        while (length >= 0x80) {
+            pending.put((byte) (length | 0x80));
+            length >>>= 7;
+        }
+        pending.put((byte) length);
+        pending.put(field);
+    }
+    
+    private static String getField(ByteBuffer body) {
+        int length = 0;
+        for (int shift = 0; shift < 32; shift += 7) {
+            if (!body.hasRemaining()) {
+                return null;
+            }
+            byte b = body.get();
+            length |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                if (length < 0 || length > body.remaining()) {
+                    return null;
+                }
+                String value = new String(body.array(), body.position(), length, StandardCharsets.UTF_8);
+                body.position(body.position() + length);
+                return value;
+            }
+        }
+        return null;
+    }
+}
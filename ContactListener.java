@@ -0,0 +1,40 @@
+/**
+ * ContactListener interface for notifications from a ContactManager
+ * Listeners are called on the thread that made the change, after it has
+ * been applied (or rejected). Every method has an empty default, so a
+ * listener only implements the events it cares about. Slow listeners can be
+ * wrapped in an AsyncContactListener to keep them off the caller's thread.
+ */
+public interface ContactListener {
+    // An add, update or delete finished, successfully or not
+    default void operationCompleted(OperationResult result) {
+    }
+    
+    // A batch (ADD_ALL, UPDATE_ALL or DELETE_ALL) finished; one result per item
+    default void batchCompleted(VaultMetrics.Operation operation, OperationResult[] results) {
+    }
+    
+    // Positions now refer to another order ("name", "phone" or "insertion")
+    default void sortOrderChanged(String order) {
+    }
+    
+    // importFromFile finished
+    default void contactsImported(String filename, ImportReport report) {
+    }
+    
+    // importFromFile could not read the file
+    default void importFailed(String filename, Exception error) {
+    }
+    
+    // exportToFile wrote count contacts
+    default void contactsExported(String filename, int count) {
+    }
+    
+    // exportToFile could not write the file
+    default void exportFailed(String filename, Exception error) {
+    }
+    
+    // Automatic journal compaction failed; the change itself is logged
+    default void journalCompactionFailed(Exception error) {
+    }
+}
@@ -1,117 +1,656 @@
 import java.util.*;
 import java.io.*;
+import java.text.CollationKey;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * ContactManager class that handles CRUD operations for contacts
- * Uses ArrayList for storage and provides search, sort, and export functionality
+ * Contacts get a stable numeric ID and are stored in an ID-keyed hash table;
+ * positions (as used by the console UI) are only a view over that storage.
+ * Duplicate checks use hash indexes keyed by PhoneKey and EmailKey
+ * and keyword search is narrowed down by a trigram index; results of
+ * repeated searches are kept in a QueryCache until a change affects them.
+ * Sorting switches between maintained sorted views instead of reordering
+ * the list, so positions refer to the currently selected order.
+ * With a journal open, every change is logged before it is applied.
+ * Every operation records its latency and outcome in VaultMetrics.
+ * Changes return an OperationResult and nothing is printed: registered
+ * ContactListeners (e.g. the console UI) are notified instead.
  */
 public class ContactManager {
-    private ArrayList<Contact> contacts;
+    // Files at least this large are imported through the memory-mapped path
+    private static final long MAPPED_IMPORT_THRESHOLD = 64L * 1024 * 1024;
+    
+    // Number of email domains included in a statistics snapshot
+    private static final int STATISTICS_TOP_DOMAINS = 10;
+    
+    // Batches at least this large are validated on all cores
+    private static final int PARALLEL_BATCH_THRESHOLD = 4096;
+    private static final String BATCH_ABORTED = "Error: Batch rejected because another contact failed!";
+    
+    // Contacts fetched per page while a search stream is consumed
+    private static final int STREAM_PAGE_SIZE = 256;
+    
+    // Changes at least this large clear the query cache instead of checking
+    // every change against every cached keyword
+    private static final int QUERY_CACHE_BULK_CHANGES = 64;
+    
+    // How a batch treats items that fail validation or the duplicate check
+    public enum BatchMode {
+        ALL_OR_NOTHING, // One rejected item rejects the whole batch
+        BEST_EFFORT     // Apply the accepted items, report the rejected ones
+    }
+    
+    // Primary storage: contact ID -> contact
+    private ContactTable contacts;
+    private long nextId;
+    
+    // Unique indexes: phone key / email key -> stored contact.
+    // Stored contacts must not be mutated through their setters, since that
+    // would leave these keys stale; use updateContact instead.
+    private HashMap<PhoneKey, Contact> phoneIndex;
+    private HashMap<EmailKey, Contact> emailIndex;
+    
+    // Substring search index over name, phone and email
+    private TrigramIndex searchIndex;
+    
+    // Results of recent keyword searches, invalidated by changes
+    private QueryCache queryCache;
+    
+    // Prefix trie over names, name words and email local-parts for type-ahead
+    private PrefixIndex prefixIndex;
+    
+    // Digit tries over normalized phones for prefix and suffix lookups
+    private PhoneTrie phoneTrie;
+    
+    // Contacts grouped by dictionary-encoded email domain, with counts
+    private DomainIndex domainIndex;
+    
+    // Canonical name instances: stored contacts with the same name share one
+    // String, counted so names of deleted contacts are dropped again
+    private StringDictionary names;
+    
+    // Running totals and histograms, updated with the indexes
+    private VaultStatistics statistics;
+    
+    // Ordered views kept up to date on every change; currentOrder is the list
+    // that positions, display and export refer to (insertion order by default)
+    private SortedView<Long> insertionView;
+    private SortedView<CollationKey> nameView;
+    private SortedView<String> phoneView;
+    private SortedView<?> currentOrder;
+    
+    // Write-ahead log of changes, or null when changes are not persisted
+    private ContactJournal journal;
+    
+    // Operation latencies, outcome counters and index gauges
+    private final VaultMetrics metrics;
+    
+    // Notified after every change; empty for headless use
+    private final List<ContactListener> listeners = new CopyOnWriteArrayList<>();
     
     public ContactManager() {
-        this.contacts = new ArrayList<>();
+        this.contacts = new ContactTable();
+        this.nextId = 1;
+        this.phoneIndex = new HashMap<>();
+        this.emailIndex = new HashMap<>();
+        this.searchIndex = new TrigramIndex();
+        this.queryCache = new QueryCache();
+        this.prefixIndex = new PrefixIndex();
+        this.phoneTrie = new PhoneTrie();
+        this.domainIndex = new DomainIndex();
+        this.names = new StringDictionary();
+        this.statistics = new VaultStatistics();
+        this.insertionView = new SortedView<>(Contact::getId);
+        this.nameView = SortedView.byName();
+        this.phoneView = SortedView.byPhone();
+        this.currentOrder = insertionView;
+        this.metrics = new VaultMetrics();
+        registerGauges();
     }
     
     // CREATE - Add a new contact
-    public boolean addContact(Contact contact) {
+    public OperationResult addContact(Contact contact) {
+        long start = System.nanoTime();
+        return complete(insertContact(contact), start);
+    }
+    
+    private OperationResult insertContact(Contact contact) {
         if (contact == null || !contact.isValid()) {
-            System.out.println("Error: Invalid contact data!");
-            return false;
+            return OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.INVALID,
+                    contact, List.of(), "Error: Invalid contact data!");
         }
         
-        if (!contact.isValidEmail()) {
-            System.out.println("Warning: Email format may be invalid!");
+        List<String> warnings = formatWarnings(contact);
+        
+        // Check for duplicates
+        if (isDuplicate(contact)) {
+            return OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.DUPLICATE,
+                    contact, warnings, "Error: Contact with same phone or email already exists!");
         }
         
-        if (!contact.isValidPhone()) {
-            System.out.println("Warning: Phone format may be invalid!");
+        try {
+            storeContact(contact);
+        } catch (IOException e) {
+            return OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.JOURNAL_ERROR,
+                    contact, warnings, "Error: Could not write to journal: " + e.getMessage());
+        }
+        compactJournalIfNeeded();
+        return OperationResult.success(VaultMetrics.Operation.ADD, contact, null, warnings,
+                "Contact added successfully!");
+    }
+    
+    // READ - Find contact by index (in the current sort order)
+    public Contact getContact(int index) {
+        if (index >= 0 && index < currentOrder.size()) {
+            return currentOrder.get(index);
+        }
+        return null;
+    }
+    
+    // READ - Position of a stored contact in the current sort order, or -1
+    public int getPosition(Contact contact) {
+        return currentOrder.indexOf(contact);
+    }
+    
+    // READ - Find contact by its stable ID in O(1)
+    public Contact getContactById(long id) {
+        return contacts.get(id);
+    }
+    
+    // READ - Find the contact with this phone, in any formatting, in O(1)
+    public Contact getContactByPhone(String phone) {
+        return phoneIndex.get(PhoneKey.of(phone));
+    }
+    
+    // READ - Find the contact with this email, ignoring case, in O(1)
+    public Contact getContactByEmail(String email) {
+        return emailIndex.get(EmailKey.of(email));
+    }
+    
+    // READ - One page of contacts in the current sort order
+    public ArrayList<Contact> getContacts(int offset, int limit) {
+        return currentOrder.page(offset, limit);
+    }
+    
+    // UPDATE - Update an existing contact by position (in the current sort order)
+    public OperationResult updateContact(int index, Contact updatedContact) {
+        if (index < 0 || index >= currentOrder.size()) {
+            return complete(OperationResult.failure(VaultMetrics.Operation.UPDATE,
+                    OperationResult.Status.NOT_FOUND, updatedContact, List.of(), "Error: Invalid contact index!"),
+                    System.nanoTime());
         }
         
-        // Check for duplicates
-        if (isDuplicate(contact)) {
-            System.out.println("Error: Contact with same phone or email already exists!");
-            return false;
+        return updateContactById(currentOrder.get(index).getId(), updatedContact);
+    }
+    
+    // UPDATE - Replace the contact with the given ID; the ID stays the same
+    public OperationResult updateContactById(long id, Contact updatedContact) {
+        long start = System.nanoTime();
+        return complete(replaceContact(id, updatedContact), start);
+    }
+    
+    private OperationResult replaceContact(long id, Contact updatedContact) {
+        Contact originalContact = contacts.get(id);
+        if (originalContact == null) {
+            return OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.NOT_FOUND,
+                    updatedContact, List.of(), "Error: Invalid contact ID!");
+        }
+        
+        if (updatedContact == null || !updatedContact.isValid()) {
+            return OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.INVALID,
+                    updatedContact, List.of(), "Error: Invalid contact data!");
+        }
+        
+        // Check for duplicates (excluding current contact)
+        if (isDuplicate(updatedContact, originalContact)) {
+            return OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.DUPLICATE,
+                    updatedContact, List.of(), "Error: Contact with same phone or email already exists!");
+        }
+        
+        try {
+            if (journal != null) {
+                journal.logUpdate(id, updatedContact);
+            }
+        } catch (IOException e) {
+            return OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.JOURNAL_ERROR,
+                    updatedContact, List.of(), "Error: Could not write to journal: " + e.getMessage());
         }
         
-        contacts.add(contact);
-        System.out.println("Contact added successfully!");
-        return true;
+        unindexContact(originalContact);
+        updatedContact.setId(id);
+        contacts.put(id, updatedContact);
+        indexContact(updatedContact);
+        compactJournalIfNeeded();
+        return OperationResult.success(VaultMetrics.Operation.UPDATE, updatedContact, originalContact, List.of(),
+                "Contact updated successfully!");
     }
     
-    // READ - Display all contacts
-    public void displayAllContacts() {
-        if (contacts.isEmpty()) {
-            System.out.println("No contacts found!");
-            return;
+    // DELETE - Remove a contact by position (in the current sort order)
+    public OperationResult deleteContact(int index) {
+        if (index < 0 || index >= currentOrder.size()) {
+            return complete(OperationResult.failure(VaultMetrics.Operation.DELETE,
+                    OperationResult.Status.NOT_FOUND, null, List.of(), "Error: Invalid contact index!"),
+                    System.nanoTime());
         }
         
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("                    ALL CONTACTS");
-        System.out.println("=".repeat(70));
+        return deleteContactById(currentOrder.get(index).getId());
+    }
+    
+    // DELETE - Remove the contact with the given ID
+    public OperationResult deleteContactById(long id) {
+        long start = System.nanoTime();
+        return complete(removeContact(id), start);
+    }
+    
+    private OperationResult removeContact(long id) {
+        if (!contacts.containsId(id)) {
+            return OperationResult.failure(VaultMetrics.Operation.DELETE, OperationResult.Status.NOT_FOUND,
+                    null, List.of(), "Error: Invalid contact ID!");
+        }
         
-        for (int i = 0; i < contacts.size(); i++) {
-            System.out.printf("[%d] %s%n", i + 1, contacts.get(i));
+        try {
+            if (journal != null) {
+                journal.logDelete(id);
+            }
+        } catch (IOException e) {
+            return OperationResult.failure(VaultMetrics.Operation.DELETE, OperationResult.Status.JOURNAL_ERROR,
+                    contacts.get(id), List.of(), "Error: Could not write to journal: " + e.getMessage());
         }
-        System.out.println("=".repeat(70));
-        System.out.println("Total contacts: " + contacts.size());
+        
+        Contact removedContact = contacts.remove(id);
+        unindexContact(removedContact);
+        compactJournalIfNeeded();
+        return OperationResult.success(VaultMetrics.Operation.DELETE, removedContact, null, List.of(),
+                "Contact deleted: " + removedContact.getName());
     }
     
-    // READ - Find contact by index
-    public Contact getContact(int index) {
-        if (index >= 0 && index < contacts.size()) {
-            return contacts.get(index);
+    // BATCH - Add many contacts in one step. The batch is validated in
+    // parallel, checked for duplicates within itself and against the store in
+    // one hashed pass and logged as a single journal record; results[i]
+    // belongs to batch[i]
+    public OperationResult[] addAll(List<Contact> batch, BatchMode mode) {
+        long start = System.nanoTime();
+        Contact[] items = batch.toArray(new Contact[0]);
+        OperationResult[] results = new OperationResult[items.length];
+        PhoneKey[] phoneKeys = new PhoneKey[items.length];
+        EmailKey[] emailKeys = new EmailKey[items.length];
+        List<List<String>> warnings = new ArrayList<>(Collections.nCopies(items.length, null));
+        
+        forEachItem(items.length, i -> {
+            Contact contact = items[i];
+            if (contact == null || !contact.isValid()) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.INVALID,
+                        contact, List.of(), "Error: Invalid contact data!");
+            } else {
+                warnings.set(i, formatWarnings(contact));
+                phoneKeys[i] = contact.getPhoneKey();
+                emailKeys[i] = contact.getEmailKey();
+            }
+        });
+        
+        // The first of several items with the same phone or email wins
+        HashSet<PhoneKey> batchPhones = new HashSet<>();
+        HashSet<EmailKey> batchEmails = new HashSet<>();
+        for (int i = 0; i < items.length; i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if (isDuplicate(phoneKeys[i], emailKeys[i], null)
+                    || batchPhones.contains(phoneKeys[i]) || batchEmails.contains(emailKeys[i])) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.DUPLICATE,
+                        items[i], warnings.get(i), "Error: Contact with same phone or email already exists!");
+            } else {
+                batchPhones.add(phoneKeys[i]);
+                batchEmails.add(emailKeys[i]);
+            }
         }
-        return null;
+        
+        ArrayList<Contact> accepted = new ArrayList<>();
+        boolean abort = mode == BatchMode.ALL_OR_NOTHING && hasRejection(results);
+        for (int i = 0; i < items.length; i++) {
+            if (results[i] == null && abort) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.ADD, OperationResult.Status.ABORTED,
+                        items[i], warnings.get(i), BATCH_ABORTED);
+            } else if (results[i] == null) {
+                accepted.add(items[i]);
+            }
+        }
+        
+        if (!accepted.isEmpty()) {
+            // IDs are only set on the caller's contacts once the batch is logged
+            long[] ids = new long[accepted.size()];
+            for (int k = 0; k < ids.length; k++) {
+                ids[k] = nextId + k;
+            }
+            try {
+                if (journal != null) {
+                    journal.logAddAll(ids, accepted);
+                }
+                invalidateQueryCache(accepted.size());
+                nextId += accepted.size();
+                contacts.ensureCapacity(contacts.size() + accepted.size());
+                for (int k = 0; k < ids.length; k++) {
+                    Contact contact = accepted.get(k);
+                    contact.setId(ids[k]);
+                    contacts.put(ids[k], contact);
+                    indexContact(contact);
+                }
+                compactJournalIfNeeded();
+            } catch (IOException e) {
+                accepted.clear();
+                failPending(results, VaultMetrics.Operation.ADD, items, e);
+            }
+        }
+        
+        for (int i = 0; i < items.length; i++) {
+            if (results[i] == null) {
+                results[i] = OperationResult.success(VaultMetrics.Operation.ADD, items[i], null, warnings.get(i),
+                        "Contact added successfully!");
+            }
+        }
+        return completeBatch(VaultMetrics.Operation.ADD_ALL, results, start);
     }
     
-    // UPDATE - Update an existing contact
-    public boolean updateContact(int index, Contact updatedContact) {
-        if (index < 0 || index >= contacts.size()) {
-            System.out.println("Error: Invalid contact index!");
-            return false;
+    // BATCH - Replace the contacts with the given IDs (ids[i] gets
+    // updatedContacts[i]) in one step. Phones and emails must be unique once
+    // the batch is applied: contacts of the batch may swap them, but a new
+    // phone or email may not belong to a contact that keeps it or to an
+    // earlier item of the batch
+    public OperationResult[] updateAll(long[] ids, List<Contact> updatedContacts, BatchMode mode) {
+        if (ids.length != updatedContacts.size()) {
+            throw new IllegalArgumentException("Got " + ids.length + " IDs for " + updatedContacts.size()
+                    + " contacts");
         }
+        long start = System.nanoTime();
+        Contact[] items = updatedContacts.toArray(new Contact[0]);
+        OperationResult[] results = new OperationResult[items.length];
+        PhoneKey[] phoneKeys = new PhoneKey[items.length];
+        EmailKey[] emailKeys = new EmailKey[items.length];
         
-        if (updatedContact == null || !updatedContact.isValid()) {
-            System.out.println("Error: Invalid contact data!");
-            return false;
+        forEachItem(items.length, i -> {
+            Contact contact = items[i];
+            if (contact != null && contact.isValid()) {
+                phoneKeys[i] = contact.getPhoneKey();
+                emailKeys[i] = contact.getEmailKey();
+            }
+        });
+        
+        Contact[] originals = new Contact[items.length];
+        HashMap<Long, Integer> itemOf = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            originals[i] = contacts.get(ids[i]);
+            if (originals[i] == null) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.UPDATE,
+                        OperationResult.Status.NOT_FOUND, items[i], List.of(), "Error: Invalid contact ID!");
+            } else if (itemOf.putIfAbsent(ids[i], i) != null) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.INVALID,
+                        items[i], List.of(), "Error: Contact ID appears more than once in the batch!");
+            } else if (phoneKeys[i] == null) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.UPDATE, OperationResult.Status.INVALID,
+                        items[i], List.of(), "Error: Invalid contact data!");
+            }
         }
         
-        // Check for duplicates (excluding current contact)
-        Contact originalContact = contacts.get(index);
-        contacts.remove(index);
+        // A rejected item leaves its contact's phone and email in place,
+        // which may reject other items in turn: check until nothing changes
+        boolean rejected;
+        do {
+            rejected = false;
+            HashSet<PhoneKey> batchPhones = new HashSet<>();
+            HashSet<EmailKey> batchEmails = new HashSet<>();
+            for (int i = 0; i < items.length; i++) {
+                if (results[i] != null) {
+                    continue;
+                }
+                if (keepsKey(phoneIndex.get(phoneKeys[i]), originals[i], itemOf, results)
+                        || keepsKey(emailIndex.get(emailKeys[i]), originals[i], itemOf, results)
+                        || !batchPhones.add(phoneKeys[i]) || !batchEmails.add(emailKeys[i])) {
+                    results[i] = OperationResult.failure(VaultMetrics.Operation.UPDATE,
+                            OperationResult.Status.DUPLICATE, items[i], List.of(),
+                            "Error: Contact with same phone or email already exists!");
+                    rejected = true;
+                }
+            }
+        } while (rejected);
         
-        if (isDuplicate(updatedContact)) {
-            contacts.add(index, originalContact); // Restore original
-            System.out.println("Error: Contact with same phone or email already exists!");
-            return false;
+        ArrayList<Contact> accepted = new ArrayList<>();
+        long[] acceptedIds = new long[items.length];
+        boolean abort = mode == BatchMode.ALL_OR_NOTHING && hasRejection(results);
+        for (int i = 0; i < items.length; i++) {
+            if (results[i] == null && abort) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.UPDATE,
+                        OperationResult.Status.ABORTED, items[i], List.of(), BATCH_ABORTED);
+            } else if (results[i] == null) {
+                acceptedIds[accepted.size()] = ids[i];
+                accepted.add(items[i]);
+            }
+        }
+        
+        if (!accepted.isEmpty()) {
+            try {
+                if (journal != null) {
+                    journal.logUpdateAll(Arrays.copyOf(acceptedIds, accepted.size()), accepted);
+                }
+                invalidateQueryCache(accepted.size());
+                for (int i = 0; i < items.length; i++) {
+                    if (results[i] == null) {
+                        unindexContact(originals[i]);
+                        items[i].setId(ids[i]);
+                        contacts.put(ids[i], items[i]);
+                        indexContact(items[i]);
+                    }
+                }
+                compactJournalIfNeeded();
+            } catch (IOException e) {
+                failPending(results, VaultMetrics.Operation.UPDATE, items, e);
+            }
         }
         
-        contacts.add(index, updatedContact);
-        System.out.println("Contact updated successfully!");
-        return true;
+        for (int i = 0; i < items.length; i++) {
+            if (results[i] == null) {
+                results[i] = OperationResult.success(VaultMetrics.Operation.UPDATE, items[i], originals[i],
+                        List.of(), "Contact updated successfully!");
+            }
+        }
+        return completeBatch(VaultMetrics.Operation.UPDATE_ALL, results, start);
     }
     
-    // DELETE - Remove a contact
-    public boolean deleteContact(int index) {
-        if (index < 0 || index >= contacts.size()) {
-            System.out.println("Error: Invalid contact index!");
+    // BATCH - Stored owner of an updated phone or email still holding it
+    // after the batch, i.e. one that is not itself replaced by the batch
+    private static boolean keepsKey(Contact owner, Contact original, HashMap<Long, Integer> itemOf,
+            OperationResult[] results) {
+        if (owner == null || owner == original) {
             return false;
         }
+        Integer item = itemOf.get(owner.getId());
+        return item == null || results[item] != null;
+    }
+    
+    // BATCH - Remove the contacts with the given IDs in one step
+    public OperationResult[] deleteAll(long[] ids, BatchMode mode) {
+        long start = System.nanoTime();
+        OperationResult[] results = new OperationResult[ids.length];
+        Contact[] items = new Contact[ids.length];
+        HashSet<Long> batchIds = new HashSet<>();
+        for (int i = 0; i < ids.length; i++) {
+            items[i] = contacts.get(ids[i]);
+            if (items[i] == null) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.DELETE,
+                        OperationResult.Status.NOT_FOUND, null, List.of(), "Error: Invalid contact ID!");
+            } else if (!batchIds.add(ids[i])) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.DELETE,
+                        OperationResult.Status.INVALID, items[i], List.of(),
+                        "Error: Contact ID appears more than once in the batch!");
+            }
+        }
+        
+        long[] acceptedIds = new long[ids.length];
+        int acceptedCount = 0;
+        boolean abort = mode == BatchMode.ALL_OR_NOTHING && hasRejection(results);
+        for (int i = 0; i < ids.length; i++) {
+            if (results[i] == null && abort) {
+                results[i] = OperationResult.failure(VaultMetrics.Operation.DELETE,
+                        OperationResult.Status.ABORTED, items[i], List.of(), BATCH_ABORTED);
+            } else if (results[i] == null) {
+                acceptedIds[acceptedCount++] = ids[i];
+            }
+        }
+        
+        if (acceptedCount > 0) {
+            try {
+                if (journal != null) {
+                    journal.logDeleteAll(Arrays.copyOf(acceptedIds, acceptedCount));
+                }
+                invalidateQueryCache(acceptedCount);
+                for (int i = 0; i < acceptedCount; i++) {
+                    unindexContact(contacts.remove(acceptedIds[i]));
+                }
+                compactJournalIfNeeded();
+            } catch (IOException e) {
+                failPending(results, VaultMetrics.Operation.DELETE, items, e);
+            }
+        }
         
-        Contact removedContact = contacts.remove(index);
-        System.out.println("Contact deleted: " + removedContact.getName());
-        return true;
+        for (int i = 0; i < ids.length; i++) {
+            if (results[i] == null) {
+                results[i] = OperationResult.success(VaultMetrics.Operation.DELETE, items[i], null, List.of(),
+                        "Contact deleted: " + items[i].getName());
+            }
+        }
+        return completeBatch(VaultMetrics.Operation.DELETE_ALL, results, start);
     }
     
-    // SEARCH - Find contacts by keyword
+    // SEARCH - Find contacts by keyword (results in insertion order)
     public ArrayList<Contact> searchContacts(String keyword) {
+        long start = System.nanoTime();
+        ArrayList<Contact> results;
+        ArrayList<Contact> cached = isBlank(keyword) ? null : queryCache.get(keyword);
+        if (cached != null) {
+            results = new ArrayList<>(cached);
+        } else {
+            results = findContacts(keyword, 0, Integer.MAX_VALUE);
+            if (!isBlank(keyword)) {
+                queryCache.put(keyword, new ArrayList<>(results));
+            }
+        }
+        metrics.add(VaultMetrics.Counter.SEARCH_RESULTS, results.size());
+        metrics.record(VaultMetrics.Operation.SEARCH, start, true);
+        return results;
+    }
+    
+    // SEARCH - One page of up to limit matches; pass null for the first page
+    // and the page's next token for the following ones. Matching stops as
+    // soon as the page is full. One extra match is fetched to tell whether
+    // more follow, so the limit is capped one below Integer.MAX_VALUE.
+    public ContactPage searchPage(String keyword, String token, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("Page limit must be positive: " + limit);
+        }
+        limit = Math.min(limit, Integer.MAX_VALUE - 1);
+        long start = System.nanoTime();
+        String query = keyword != null ? keyword : "";
+        long afterId = ContactPage.parseToken(token, query);
+        ArrayList<Contact> results = cachedPage(query, token == null, afterId, limit + 1);
+        if (results == null) {
+            results = findContacts(query, afterId, limit + 1);
+        }
+        String nextToken = null;
+        if (results.size() > limit) {
+            results.remove(limit);
+            nextToken = ContactPage.tokenAfter(results.get(limit - 1).getId(), query);
+        }
+        metrics.add(VaultMetrics.Counter.SEARCH_RESULTS, results.size());
+        metrics.record(VaultMetrics.Operation.SEARCH, start, true);
+        return new ContactPage(results, nextToken);
+    }
+    
+    // SEARCH - All matches as a lazy stream: pages are fetched with
+    // searchPage only as the stream is consumed, so limit() or findFirst()
+    // stop the search early
+    public Stream<Contact> streamSearch(String keyword) {
+        Iterator<Contact> pages = new Iterator<Contact>() {
+            private ContactPage page = searchPage(keyword, null, STREAM_PAGE_SIZE);
+            private Iterator<Contact> current = page.iterator();
+            
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && page.hasMore()) {
+                    page = searchPage(keyword, page.getNextToken(), STREAM_PAGE_SIZE);
+                    current = page.iterator();
+                }
+                return current.hasNext();
+            }
+            
+            @Override
+            public Contact next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pages,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+    
+    // Page of the cached results of a keyword, or null if not cached. A
+    // first page counts as a lookup; a keyword searched repeatedly is then
+    // searched in full once and cached, unless it has too many matches.
+    private ArrayList<Contact> cachedPage(String keyword, boolean firstPage, long afterId, int limit) {
+        if (isBlank(keyword)) {
+            return null;
+        }
+        ArrayList<Contact> all = firstPage ? queryCache.get(keyword) : queryCache.peek(keyword);
+        if (all == null) {
+            if (!firstPage || !queryCache.isRepeated(keyword)) {
+                return null;
+            }
+            all = findContacts(keyword, 0, Math.max(queryCache.getMaxResultSize() + 1, limit));
+            if (!queryCache.put(keyword, all) && all.size() > queryCache.getMaxResultSize()) {
+                return new ArrayList<>(all.subList(0, Math.min(limit, all.size())));
+            }
+        }
+        
+        // Cached results are in ID order: find the first one after afterId
+        int low = 0;
+        int high = all.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (all.get(middle).getId() <= afterId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return new ArrayList<>(all.subList(low, low + Math.min(limit, all.size() - low)));
+    }
+    
+    private static boolean isBlank(String keyword) {
+        return keyword == null || keyword.trim().isEmpty();
+    }
+    
+    // Up to limit matches with an ID above afterId, in ID order
+    private ArrayList<Contact> findContacts(String keyword, long afterId, int limit) {
         ArrayList<Contact> results = new ArrayList<>();
         
         if (keyword == null || keyword.trim().isEmpty()) {
             return results;
         }
         
-        for (Contact contact : contacts) {
+        // Keywords of three or more characters are answered from the index
+        ArrayList<Contact> indexed = searchIndex.search(keyword, afterId, limit);
+        if (indexed != null) {
+            return indexed;
+        }
+        
+        Iterator<Contact> scan = insertionView.iteratorAfter(afterId);
+        while (scan.hasNext() && results.size() < limit) {
+            Contact contact = scan.next();
             if (contact.matches(keyword)) {
                 results.add(contact);
             }
@@ -120,106 +659,542 @@ public class ContactManager {
         return results;
     }
     
-    // Display search results
-    public void displaySearchResults(String keyword) {
-        ArrayList<Contact> results = searchContacts(keyword);
-        
-        if (results.isEmpty()) {
-            System.out.println("No contacts found matching: " + keyword);
-            return;
-        }
-        
-        System.out.println("\n" + "=".repeat(70));
-        System.out.println("           SEARCH RESULTS FOR: " + keyword.toUpperCase());
-        System.out.println("=".repeat(70));
-        
-        for (int i = 0; i < results.size(); i++) {
-            int originalIndex = contacts.indexOf(results.get(i));
-            System.out.printf("[%d] %s%n", originalIndex + 1, results.get(i));
-        }
-        System.out.println("=".repeat(70));
-        System.out.println("Found " + results.size() + " contact(s)");
+    // SEARCH - Type-ahead: up to limit contacts whose name, any name word or
+    // email local-part starts with the prefix
+    public ArrayList<Contact> autocomplete(String prefix, int limit) {
+        long start = System.nanoTime();
+        ArrayList<Contact> results = prefixIndex.complete(prefix, limit);
+        metrics.record(VaultMetrics.Operation.AUTOCOMPLETE, start, true);
+        return results;
+    }
+    
+    // SEARCH - Contacts whose phone starts with the given digits ("+91", "1800")
+    public ArrayList<Contact> findByPhonePrefix(String prefix, int limit) {
+        long start = System.nanoTime();
+        ArrayList<Contact> results = phoneTrie.findByPrefix(prefix, limit);
+        metrics.record(VaultMetrics.Operation.PHONE_LOOKUP, start, true);
+        return results;
+    }
+    
+    // SEARCH - Caller-ID lookup: contacts whose phone ends with the given digits
+    public ArrayList<Contact> findByPhoneSuffix(String suffix, int limit) {
+        long start = System.nanoTime();
+        ArrayList<Contact> results = phoneTrie.findBySuffix(suffix, limit);
+        metrics.record(VaultMetrics.Operation.PHONE_LOOKUP, start, true);
+        return results;
+    }
+    
+    // SEARCH - All contacts at an email domain ("company.com"), in ID order
+    public ArrayList<Contact> findByDomain(String domain) {
+        long start = System.nanoTime();
+        ArrayList<Contact> results = domainIndex.find(domain);
+        metrics.record(VaultMetrics.Operation.DOMAIN_LOOKUP, start, true);
+        return results;
     }
     
-    // SORT - Sort contacts by name
+    // Number of contacts at an email domain
+    public int getDomainCount(String domain) {
+        return domainIndex.count(domain);
+    }
+    
+    // Up to limit email domains with their contact counts, most contacts first
+    public LinkedHashMap<String, Integer> getTopDomains(int limit) {
+        return domainIndex.top(limit);
+    }
+    
+    // SEARCH - Groups of likely duplicates (similar names with the same or
+    // nearly the same phone or email), for review or merging
+    public ArrayList<ArrayList<Contact>> findDuplicates() {
+        return findDuplicates(DuplicateDetector.DEFAULT_THRESHOLD);
+    }
+    
+    // SEARCH - Same with an explicit similarity threshold between 0 and 1
+    public ArrayList<ArrayList<Contact>> findDuplicates(double threshold) {
+        return new DuplicateDetector(threshold).findClusters(insertionView);
+    }
+    
+    // SORT - Sort contacts by name (switches to the maintained name view)
     public void sortContactsByName() {
-        contacts.sort((c1, c2) -> c1.getName().compareToIgnoreCase(c2.getName()));
-        System.out.println("Contacts sorted by name!");
+        currentOrder = nameView;
+        for (ContactListener listener : listeners) {
+            listener.sortOrderChanged("name");
+        }
     }
     
-    // SORT - Sort contacts by phone
+    // SORT - Sort contacts by phone (switches to the maintained phone view)
     public void sortContactsByPhone() {
-        contacts.sort((c1, c2) -> c1.getPhone().compareTo(c2.getPhone()));
-        System.out.println("Contacts sorted by phone!");
+        currentOrder = phoneView;
+        for (ContactListener listener : listeners) {
+            listener.sortOrderChanged("phone");
+        }
     }
     
-    // UTILITY - Check for duplicates
-    private boolean isDuplicate(Contact contact) {
-        for (Contact existing : contacts) {
-            if (existing.equals(contact)) {
+    // SORT - Go back to insertion order
+    public void clearSortOrder() {
+        currentOrder = insertionView;
+        for (ContactListener listener : listeners) {
+            listener.sortOrderChanged("insertion");
+        }
+    }
+    
+    // UTILITY - Record metrics for a finished change and notify listeners
+    private OperationResult complete(OperationResult result, long start) {
+        countRejection(result.getStatus());
+        metrics.record(result.getOperation(), start, result.isSuccess());
+        for (ContactListener listener : listeners) {
+            listener.operationCompleted(result);
+        }
+        return result;
+    }
+    
+    // UTILITY - Count a rejected change by reason
+    private void countRejection(OperationResult.Status status) {
+        switch (status) {
+            case INVALID:
+                metrics.increment(VaultMetrics.Counter.REJECTED_INVALID);
+                break;
+            case DUPLICATE:
+                metrics.increment(VaultMetrics.Counter.REJECTED_DUPLICATE);
+                break;
+            case NOT_FOUND:
+                metrics.increment(VaultMetrics.Counter.REJECTED_NOT_FOUND);
+                break;
+            case JOURNAL_ERROR:
+                metrics.increment(VaultMetrics.Counter.JOURNAL_ERRORS);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    // UTILITY - Record metrics for a finished batch and notify listeners
+    private OperationResult[] completeBatch(VaultMetrics.Operation operation, OperationResult[] results,
+            long start) {
+        boolean applied = true;
+        for (OperationResult result : results) {
+            if (!result.isSuccess()) {
+                applied = false;
+                countRejection(result.getStatus());
+            }
+        }
+        metrics.record(operation, start, applied);
+        for (ContactListener listener : listeners) {
+            listener.batchCompleted(operation, results);
+        }
+        return results;
+    }
+    
+    // UTILITY - Whether any item of a batch already has a (failed) result
+    private static boolean hasRejection(OperationResult[] results) {
+        for (OperationResult result : results) {
+            if (result != null) {
                 return true;
             }
         }
         return false;
     }
     
-    // EXPORT - Save contacts to CSV file
+    // UTILITY - The journal refused the batch: nothing was applied
+    private static void failPending(OperationResult[] results, VaultMetrics.Operation operation, Contact[] items,
+            IOException e) {
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                results[i] = OperationResult.failure(operation, OperationResult.Status.JOURNAL_ERROR, items[i],
+                        List.of(), "Error: Could not write to journal: " + e.getMessage());
+            }
+        }
+    }
+    
+    // UTILITY - Run body for every item index, on all cores for large batches
+    private static void forEachItem(int size, IntConsumer body) {
+        IntStream indexes = IntStream.range(0, size);
+        (size >= PARALLEL_BATCH_THRESHOLD ? indexes.parallel() : indexes).forEach(body);
+    }
+    
+    // UTILITY - Format problems that are reported but do not block an add
+    private static List<String> formatWarnings(Contact contact) {
+        if (contact.isValidEmail() && contact.isValidPhone()) {
+            return List.of();
+        }
+        ArrayList<String> warnings = new ArrayList<>(2);
+        if (!contact.isValidEmail()) {
+            warnings.add("Email format may be invalid!");
+        }
+        if (!contact.isValidPhone()) {
+            warnings.add("Phone format may be invalid!");
+        }
+        return warnings;
+    }
+    
+    // UTILITY - Check for duplicates in O(1) using the hash indexes
+    private boolean isDuplicate(Contact contact) {
+        return isDuplicate(contact, null);
+    }
+    
+    // UTILITY - Check for duplicates, ignoring the given contact (used by update)
+    private boolean isDuplicate(Contact contact, Contact ignored) {
+        return isDuplicate(contact.getPhoneKey(), contact.getEmailKey(), ignored);
+    }
+    
+    // UTILITY - Same check on the keys of a contact
+    private boolean isDuplicate(PhoneKey phoneKey, EmailKey emailKey, Contact ignored) {
+        Contact byPhone = phoneIndex.get(phoneKey);
+        if (byPhone != null && byPhone != ignored) {
+            return true;
+        }
+        
+        Contact byEmail = emailIndex.get(emailKey);
+        return byEmail != null && byEmail != ignored;
+    }
+    
+    // UTILITY - Before changing many contacts at once, drop the whole query
+    // cache; smaller changes invalidate only the entries they affect
+    private void invalidateQueryCache(int changes) {
+        if (changes >= QUERY_CACHE_BULK_CHANGES) {
+            queryCache.clear();
+        }
+    }
+    
+    // UTILITY - Register a stored contact in the unique and search indexes
+    private void indexContact(Contact contact) {
+        queryCache.invalidate(contact);
+        contact.shareName(names.get(names.acquire(contact.getName())));
+        phoneIndex.put(contact.getPhoneKey(), contact);
+        emailIndex.put(contact.getEmailKey(), contact);
+        searchIndex.add(contact);
+        prefixIndex.add(contact);
+        phoneTrie.add(contact);
+        domainIndex.add(contact);
+        statistics.add(contact);
+        insertionView.add(contact);
+        nameView.add(contact);
+        phoneView.add(contact);
+    }
+    
+    // UTILITY - Remove a stored contact from the unique and search indexes
+    private void unindexContact(Contact contact) {
+        queryCache.invalidate(contact);
+        int nameCode = names.codeOf(contact.getName());
+        if (nameCode >= 0) {
+            names.release(nameCode);
+        }
+        // Only if still this contact's: a batch may already have handed the
+        // phone or email to another one
+        phoneIndex.remove(contact.getPhoneKey(), contact);
+        emailIndex.remove(contact.getEmailKey(), contact);
+        searchIndex.remove(contact);
+        prefixIndex.remove(contact);
+        phoneTrie.remove(contact);
+        domainIndex.remove(contact);
+        statistics.remove(contact);
+        insertionView.remove(contact);
+        nameView.remove(contact);
+        phoneView.remove(contact);
+    }
+    
+    // UTILITY - Assign the next ID, log and store a contact that passed all checks
+    private void storeContact(Contact contact) throws IOException {
+        if (journal != null) {
+            journal.logAdd(nextId, contact);
+        }
+        contact.setId(nextId++);
+        contacts.put(contact.getId(), contact);
+        indexContact(contact);
+    }
+    
+    // PERSISTENCE - Rebuild this (empty) manager from a journal file and log
+    // every later change to it; returns the number of replayed records
+    public long openJournal(String filename) throws IOException {
+        return openJournal(filename, ContactJournal.DEFAULT_SYNC_BATCH_SIZE,
+                ContactJournal.DEFAULT_SYNC_INTERVAL_MILLIS);
+    }
+    
+    // PERSISTENCE - Same with explicit group-commit settings: fsync after
+    // syncBatchSize changes or syncIntervalMillis, whichever comes first
+    public long openJournal(String filename, int syncBatchSize, long syncIntervalMillis) throws IOException {
+        if (journal != null) {
+            throw new IllegalStateException("A journal is already open");
+        }
+        if (!contacts.isEmpty()) {
+            throw new IllegalStateException("A journal can only be opened on an empty contact manager");
+        }
+        
+        ContactJournal opened = new ContactJournal(filename, syncBatchSize, syncIntervalMillis);
+        queryCache.clear();
+        try {
+            long replayed = opened.replay(this);
+            journal = opened;
+            return replayed;
+        } catch (IOException | RuntimeException e) {
+            opened.close();
+            throw e;
+        }
+    }
+    
+    // PERSISTENCE - Write all contacts to a binary snapshot file
+    public void saveSnapshot(String filename) throws IOException {
+        long start = System.nanoTime();
+        boolean saved = false;
+        try {
+            VaultSnapshot.write(insertionView, nextId, 0, filename);
+            saved = true;
+        } finally {
+            metrics.record(VaultMetrics.Operation.SNAPSHOT_SAVE, start, saved);
+        }
+    }
+    
+    // PERSISTENCE - Load a snapshot into this (empty) manager; the contacts
+    // were validated when saved, so they are not checked again. With a
+    // journal open, the journal is compacted right away so the loaded
+    // contacts survive a restart; if that fails, nothing is loaded.
+    public int loadSnapshot(String filename) throws IOException {
+        if (!contacts.isEmpty()) {
+            throw new IllegalStateException("A snapshot can only be loaded into an empty contact manager");
+        }
+        long start = System.nanoTime();
+        boolean loaded = false;
+        try {
+            VaultSnapshot snapshot = VaultSnapshot.read(filename);
+            restoreSnapshot(snapshot);
+            if (journal != null) {
+                try {
+                    compactJournal();
+                } catch (IOException e) {
+                    for (Contact contact : snapshot.getContacts()) {
+                        discardContact(contact.getId());
+                    }
+                    throw e;
+                }
+            }
+            loaded = true;
+            return snapshot.getContacts().size();
+        } finally {
+            metrics.record(VaultMetrics.Operation.SNAPSHOT_LOAD, start, loaded);
+        }
+    }
+    
+    // PERSISTENCE - Make every change logged so far durable
+    public void syncJournal() throws IOException {
+        if (journal != null) {
+            long start = System.nanoTime();
+            boolean synced = false;
+            try {
+                journal.sync();
+                synced = true;
+            } finally {
+                metrics.record(VaultMetrics.Operation.JOURNAL_SYNC, start, synced);
+            }
+        }
+    }
+    
+    // PERSISTENCE - Snapshot the live contacts and start an empty journal
+    public void compactJournal() throws IOException {
+        if (journal != null) {
+            long start = System.nanoTime();
+            boolean compacted = false;
+            try {
+                journal.compact(insertionView, nextId);
+                compacted = true;
+            } finally {
+                metrics.record(VaultMetrics.Operation.JOURNAL_COMPACT, start, compacted);
+            }
+        }
+    }
+    
+    // PERSISTENCE - Sync and close the journal; later changes are not logged
+    public void closeJournal() throws IOException {
+        if (journal != null) {
+            try {
+                journal.close();
+            } finally {
+                journal = null;
+            }
+        }
+    }
+    
+    // UTILITY - Compact once the journal has grown past the live contact
+    // count; the change itself is already logged, so a failure is only reported
+    private void compactJournalIfNeeded() {
+        if (journal != null && journal.needsCompaction(contacts.size())) {
+            try {
+                compactJournal();
+            } catch (IOException e) {
+                for (ContactListener listener : listeners) {
+                    listener.journalCompactionFailed(e);
+                }
+            }
+        }
+    }
+    
+    // RESTORE - Put a contact back under a known ID (journal replay): no
+    // validation, duplicate check, logging or console output
+    void restoreContact(long id, Contact contact) {
+        Contact previous = contacts.get(id);
+        if (previous != null) {
+            unindexContact(previous);
+        }
+        contact.setId(id);
+        contacts.put(id, contact);
+        indexContact(contact);
+        reserveIds(id + 1);
+    }
+    
+    // RESTORE - Drop a contact by ID (journal replay)
+    void discardContact(long id) {
+        Contact removed = contacts.remove(id);
+        if (removed != null) {
+            unindexContact(removed);
+        }
+    }
+    
+    // RESTORE - Bulk load of snapshot contacts (already validated and unique)
+    void restoreSnapshot(VaultSnapshot snapshot) {
+        invalidateQueryCache(snapshot.getContacts().size());
+        contacts.ensureCapacity(contacts.size() + snapshot.getContacts().size());
+        for (Contact contact : snapshot.getContacts()) {
+            contacts.put(contact.getId(), contact);
+            indexContact(contact);
+        }
+        reserveIds(snapshot.getNextId());
+    }
+    
+    // RESTORE - Never hand out IDs below next again
+    void reserveIds(long next) {
+        nextId = Math.max(nextId, next);
+    }
+    
+    // EXPORT - Save contacts to CSV file (gzip-compressed when the name ends in .gz)
     public boolean exportToFile(String filename) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
-            // Write header
-            writer.println("Name,Phone,Email");
-            
-            // Write contacts
-            for (Contact contact : contacts) {
-                writer.println(contact.toCSV());
+        try {
+            exportCsv(filename, filename.endsWith(".gz"));
+            for (ContactListener listener : listeners) {
+                listener.contactsExported(filename, currentOrder.size());
             }
-            
-            System.out.println("Contacts exported to " + filename + " successfully!");
             return true;
             
         } catch (IOException e) {
-            System.out.println("Error exporting contacts: " + e.getMessage());
+            for (ContactListener listener : listeners) {
+                listener.exportFailed(filename, e);
+            }
             return false;
         }
     }
     
+    // EXPORT - Write contacts to a file without console output
+    public void exportCsv(String filename, boolean gzip) throws IOException {
+        long start = System.nanoTime();
+        boolean exported = false;
+        try {
+            CsvExporter.exportToFile(currentOrder, filename, gzip);
+            metrics.add(VaultMetrics.Counter.EXPORT_ROWS, currentOrder.size());
+            exported = true;
+        } finally {
+            metrics.record(VaultMetrics.Operation.EXPORT, start, exported);
+        }
+    }
+    
+    // EXPORT - Stream contacts to any output stream (the stream is left open)
+    public void exportCsv(OutputStream out) throws IOException {
+        long start = System.nanoTime();
+        boolean exported = false;
+        try {
+            CsvExporter.exportToStream(currentOrder, out);
+            metrics.add(VaultMetrics.Counter.EXPORT_ROWS, currentOrder.size());
+            exported = true;
+        } finally {
+            metrics.record(VaultMetrics.Operation.EXPORT, start, exported);
+        }
+    }
+    
     // IMPORT - Load contacts from CSV file
     public boolean importFromFile(String filename) {
-        try (BufferedReader reader = new BufferedReader(new FileReader(filename))) {
-            String line;
-            boolean isFirstLine = true;
-            int importedCount = 0;
-            
-            while ((line = reader.readLine()) != null) {
-                // Skip header line
-                if (isFirstLine) {
-                    isFirstLine = false;
-                    continue;
-                }
-                
-                String[] parts = line.split(",");
-                if (parts.length == 3) {
-                    // Remove quotes if present
-                    String name = parts[0].replaceAll("\"", "").trim();
-                    String phone = parts[1].replaceAll("\"", "").trim();
-                    String email = parts[2].replaceAll("\"", "").trim();
-                    
-                    Contact contact = new Contact(name, phone, email);
-                    if (addContact(contact)) {
-                        importedCount++;
-                    }
-                }
+        try {
+            ImportReport report = importCsv(filename);
+            for (ContactListener listener : listeners) {
+                listener.contactsImported(filename, report);
             }
-            
-            System.out.println("Imported " + importedCount + " contacts from " + filename);
             return true;
             
         } catch (IOException e) {
-            System.out.println("Error importing contacts: " + e.getMessage());
+            for (ContactListener listener : listeners) {
+                listener.importFailed(filename, e);
+            }
             return false;
         }
     }
     
+    // IMPORT - Parse a CSV file in parallel and return a detailed report (no console output)
+    public ImportReport importCsv(String filename) throws IOException {
+        if (new File(filename).length() >= MAPPED_IMPORT_THRESHOLD) {
+            return importMapped(filename);
+        }
+        long start = System.nanoTime();
+        ImportReport report = null;
+        try {
+            report = CsvImporter.importFile(filename, this::insertBatch);
+            return report;
+        } catch (UncheckedIOException e) {
+            throw e.getCause(); // Journal write failure inside insertBatch
+        } finally {
+            recordImport(start, report);
+            compactJournalIfNeeded();
+        }
+    }
+    
+    // IMPORT - Memory-mapped import for multi-GB files: scans raw bytes and
+    // only builds Contact objects for rows that pass validation
+    public ImportReport importMapped(String filename) throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = null;
+        try {
+            report = MappedCsvImporter.importFile(filename, this::insertBatch);
+            return report;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            recordImport(start, report);
+            compactJournalIfNeeded();
+        }
+    }
+    
+    // UTILITY - Import latency and row counts (report is null if it failed)
+    private void recordImport(long start, ImportReport report) {
+        if (report != null) {
+            metrics.add(VaultMetrics.Counter.IMPORT_ROWS_ACCEPTED, report.getAccepted());
+            metrics.add(VaultMetrics.Counter.IMPORT_ROWS_DUPLICATE, report.getDuplicates());
+            metrics.add(VaultMetrics.Counter.IMPORT_ROWS_INVALID, report.getInvalid());
+            metrics.add(VaultMetrics.Counter.IMPORT_ROWS_MALFORMED, report.getMalformed());
+        }
+        metrics.record(VaultMetrics.Operation.IMPORT, start, report != null);
+    }
+    
+    // UTILITY - Batched insert for bulk loads: stores already-validated
+    // contacts without console output and reports which ones were kept
+    private boolean[] insertBatch(List<Contact> batch) {
+        boolean[] stored = new boolean[batch.size()];
+        contacts.ensureCapacity(contacts.size() + batch.size());
+        invalidateQueryCache(batch.size());
+        
+        for (int i = 0; i < batch.size(); i++) {
+            Contact contact = batch.get(i);
+            if (!isDuplicate(contact)) {
+                try {
+                    storeContact(contact);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                stored[i] = true;
+            }
+        }
+        return stored;
+    }
+    
+    // Statistics snapshot: counts, histograms and the most common domains,
+    // read from running aggregates instead of scanning the contacts
+    public VaultStatistics getStatistics() {
+        return statistics.snapshot(domainIndex.top(STATISTICS_TOP_DOMAINS), domainIndex.size());
+    }
+    
     // Get total number of contacts
     public int getContactCount() {
         return contacts.size();
@@ -229,4 +1204,45 @@ public class ContactManager {
     public boolean isEmpty() {
         return contacts.isEmpty();
     }
+    
+    // EVENTS - Register a listener for changes, imports, exports and sorting
+    public void addListener(ContactListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeListener(ContactListener listener) {
+        listeners.remove(listener);
+    }
+    
+    // METRICS - Latencies, counters and gauges of this manager
+    public VaultMetrics getMetrics() {
+        return metrics;
+    }
+    
+    // METRICS - Search result cache, for its hit/miss/eviction counts
+    public QueryCache getQueryCache() {
+        return queryCache;
+    }
+    
+    // METRICS - Index and storage sizes, sampled when metrics are read
+    private void registerGauges() {
+        metrics.registerGauge("contacts", "Stored contacts", () -> contacts.size());
+        metrics.registerGauge("next_id", "Next contact ID to be assigned", () -> nextId);
+        metrics.registerGauge("search_index_trigrams", "Distinct trigrams in the search index",
+                () -> searchIndex.gramCount());
+        metrics.registerGauge("prefix_index_contacts", "Contacts in the type-ahead index",
+                () -> prefixIndex.size());
+        metrics.registerGauge("phone_index_numbers", "Numbers in the phone tries", () -> phoneTrie.size());
+        metrics.registerGauge("email_domains", "Distinct email domains", () -> domainIndex.size());
+        metrics.registerGauge("query_cache_entries", "Cached search results", () -> queryCache.size());
+        metrics.registerGauge("query_cache_hits", "Searches answered from the cache", () -> queryCache.getHits());
+        metrics.registerGauge("query_cache_misses", "Searches not found in the cache", () -> queryCache.getMisses());
+        metrics.registerGauge("query_cache_evictions", "Cached results evicted for others",
+                () -> queryCache.getEvictions());
+        metrics.registerGauge("query_cache_rejections", "Results not cached by the frequency filter",
+                () -> queryCache.getRejections());
+        metrics.registerGauge("query_cache_invalidations", "Cached results dropped by changes",
+                () -> queryCache.getInvalidations());
+        metrics.registerGauge("journal_open", "1 when changes are journaled", () -> journal != null ? 1 : 0);
+    }
 }
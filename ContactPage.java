@@ -0,0 +1,66 @@
+import java.util.*;
+
+/**
+ * ContactPage class holding one page of search results
+ * Pages are in contact ID order. getNextToken() is an opaque continuation
+ * token for the following page (null on the last page); it remembers the
+ * position, not the results, so contacts added or removed between two
+ * calls are seen or skipped consistently and no page repeats a contact.
+ */
+public class ContactPage implements Iterable<Contact> {
+    private final List<Contact> contacts;
+    private final String nextToken;
+    
+    ContactPage(List<Contact> contacts, String nextToken) {
+        this.contacts = Collections.unmodifiableList(contacts);
+        this.nextToken = nextToken;
+    }
+    
+    public List<Contact> getContacts() {
+        return contacts;
+    }
+    
+    public int size() {
+        return contacts.size();
+    }
+    
+    public boolean isEmpty() {
+        return contacts.isEmpty();
+    }
+    
+    // Token for searchPage to fetch the next page, or null if this is the last
+    public String getNextToken() {
+        return nextToken;
+    }
+    
+    public boolean hasMore() {
+        return nextToken != null;
+    }
+    
+    @Override
+    public Iterator<Contact> iterator() {
+        return contacts.iterator();
+    }
+    
+    // Token resuming a query after the contact with this ID; it carries a
+    // hash of the query so it cannot be replayed against another one
+    static String tokenAfter(long id, String query) {
+        return Long.toString(id, 36) + "." + Integer.toString(query.hashCode(), 36);
+    }
+    
+    // ID to resume after (0 for a null token, i.e. the first page)
+    static long parseToken(String token, String query) {
+        if (token == null) {
+            return 0;
+        }
+        int dot = token.indexOf('.');
+        try {
+            if (dot > 0 && Integer.parseInt(token.substring(dot + 1), 36) == query.hashCode()) {
+                return Long.parseLong(token.substring(0, dot), 36);
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid continuation token for this query: " + token);
+    }
+}
@@ -0,0 +1,171 @@
+import java.util.*;
+
+/**
+ * ContactTable class mapping contact IDs to contacts
+ * Open-addressing hash table with primitive long keys and linear probing,
+ * so lookups by ID are O(1) without boxing. Deletion shifts later entries
+ * of the probe run back instead of leaving tombstones. ID 0 is reserved to
+ * mark empty slots.
+ */
+public class ContactTable {
+    private static final long EMPTY = 0;
+    
+    private long[] keys;
+    private Contact[] values;
+    private int size;
+    private int mask;
+    
+    public ContactTable() {
+        this(16);
+    }
+    
+    public ContactTable(int expectedSize) {
+        allocate(capacityFor(expectedSize));
+    }
+    
+    // Contact stored under the ID, or null
+    public Contact get(long id) {
+        if (id == EMPTY) {
+            return null;
+        }
+        for (int slot = slot(id); ; slot = (slot + 1) & mask) {
+            long key = keys[slot];
+            if (key == id) {
+                return values[slot];
+            }
+            if (key == EMPTY) {
+                return null;
+            }
+        }
+    }
+    
+    public boolean containsId(long id) {
+        return get(id) != null;
+    }
+    
+    // Store a contact under the ID and return the previous one, if any
+    public Contact put(long id, Contact contact) {
+        if (id == EMPTY) {
+            throw new IllegalArgumentException("Contact ID 0 is reserved");
+        }
+        if (contact == null) {
+            throw new IllegalArgumentException("Contact must not be null");
+        }
+        
+        int slot = slot(id);
+        while (keys[slot] != EMPTY) {
+            if (keys[slot] == id) {
+                Contact previous = values[slot];
+                values[slot] = contact;
+                return previous;
+            }
+            slot = (slot + 1) & mask;
+        }
+        
+        keys[slot] = id;
+        values[slot] = contact;
+        if (++size > maxSize()) {
+            rehash(keys.length * 2);
+        }
+        return null;
+    }
+    
+    // Remove the contact stored under the ID and return it, or null
+    public Contact remove(long id) {
+        if (id == EMPTY) {
+            return null;
+        }
+        
+        int slot = slot(id);
+        while (keys[slot] != id) {
+            if (keys[slot] == EMPTY) {
+                return null;
+            }
+            slot = (slot + 1) & mask;
+        }
+        Contact removed = values[slot];
+        
+        // Backward-shift: move later entries of the run into the gap when
+        // their home slot does not lie between the gap and their position
+        int gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            int home = slot(keys[next]);
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                values[gap] = values[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        values[gap] = null;
+        size--;
+        return removed;
+    }
+    
+    public int size() {
+        return size;
+    }
+    
+    public boolean isEmpty() {
+        return size == 0;
+    }
+    
+    // Grow once ahead of a bulk insert
+    public void ensureCapacity(int expectedSize) {
+        int capacity = capacityFor(expectedSize);
+        if (capacity > keys.length) {
+            rehash(capacity);
+        }
+    }
+    
+    // All stored contacts in table order
+    public ArrayList<Contact> values() {
+        ArrayList<Contact> result = new ArrayList<>(size);
+        for (int slot = 0; slot < keys.length; slot++) {
+            if (keys[slot] != EMPTY) {
+                result.add(values[slot]);
+            }
+        }
+        return result;
+    }
+    
+    private int slot(long id) {
+        long hash = id * 0x9E3779B97F4A7C15L; // Fibonacci hashing spreads sequential IDs
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+    
+    // Keep the table at most half full
+    private int maxSize() {
+        return keys.length >>> 1;
+    }
+    
+    private static int capacityFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity >>> 1 < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new Contact[capacity];
+        mask = capacity - 1;
+    }
+    
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        Contact[] oldValues = values;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slot(oldKeys[i]);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -3,26 +3,59 @@ import java.util.*;
 /**
  * Main class for the Contact Management System
  * Provides a console-based user interface for CRUD operations
+ * With --server [port] the vault is shared over TCP instead (see
+ * ContactVaultServer) until the process is stopped.
  */
 public class ContactVault {
+    // Every change is logged here and replayed on the next start
+    private static final String JOURNAL_FILE = "contacts.journal";
+    
+    // Contacts shown at a time by the view and search screens
+    private static final int PAGE_SIZE = 20;
+    
     private ContactManager manager;
     private Scanner scanner;
     
     public ContactVault() {
         this.manager = new ContactManager();
+        this.manager.addListener(new ConsoleContactListener());
         this.scanner = new Scanner(System.in);
     }
     
-    public static void main(String[] args) {
+    public static void main(String[] args) throws java.io.IOException {
+        if (args.length > 0 && args[0].equals("--server")) {
+            runServer(args.length > 1 ? Integer.parseInt(args[1]) : ContactVaultServer.DEFAULT_PORT);
+            return;
+        }
         ContactVault app = new ContactVault();
         app.run();
     }
     
+    // Serve the journaled vault to network clients; Ctrl+C stops the server
+    // and closes the journal
+    private static void runServer(int port) throws java.io.IOException {
+        ContactManager manager = new ConcurrentContactManager();
+        manager.openJournal(JOURNAL_FILE);
+        ContactVaultServer server = new ContactVaultServer(manager, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                server.close();
+                manager.closeJournal();
+            } catch (java.io.IOException e) {
+                System.err.println("Error closing journal: " + e.getMessage());
+            }
+        }));
+        server.start();
+        System.out.println("Contact Vault serving " + manager.getContactCount() + " contacts on localhost:"
+                + server.getPort() + " (Ctrl+C to stop)");
+    }
+    
     public void run() {
         System.out.println("=".repeat(60));
         System.out.println("        WELCOME TO CONTACT VAULT");
         System.out.println("     Your Personal Contact Manager");
         System.out.println("=".repeat(60));
+        openJournal();
         
         while (true) {
             displayMenu();
@@ -67,6 +100,17 @@ public class ContactVault {
         }
     }
     
+    private void openJournal() {
+        try {
+            manager.openJournal(JOURNAL_FILE);
+            if (!manager.isEmpty()) {
+                System.out.println("Restored " + manager.getContactCount() + " contacts from " + JOURNAL_FILE);
+            }
+        } catch (java.io.IOException e) {
+            System.out.println("Warning: Changes will not be saved (" + e.getMessage() + ")");
+        }
+    }
+    
     private void displayMenu() {
         System.out.println("\n" + "=".repeat(50));
         System.out.println("                MAIN MENU");
@@ -119,7 +163,41 @@ public class ContactVault {
         System.out.println("          VIEW ALL CONTACTS");
         System.out.println("-".repeat(40));
         
-        manager.displayAllContacts();
+        showContactPages();
+    }
+    
+    // Show all contacts in the current order, PAGE_SIZE at a time
+    private void showContactPages() {
+        if (manager.isEmpty()) {
+            System.out.println("No contacts found!");
+            return;
+        }
+        
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("                    ALL CONTACTS");
+        System.out.println("=".repeat(70));
+        
+        int offset = 0;
+        while (true) {
+            ArrayList<Contact> page = manager.getContacts(offset, PAGE_SIZE);
+            for (int i = 0; i < page.size(); i++) {
+                System.out.printf("[%d] %s%n", offset + i + 1, page.get(i));
+            }
+            offset += page.size();
+            
+            int total = manager.getContactCount();
+            if (page.isEmpty() || offset >= total || !askForMore(offset + " of " + total + " shown")) {
+                break;
+            }
+        }
+        System.out.println("=".repeat(70));
+        System.out.println("Total contacts: " + manager.getContactCount());
+    }
+    
+    // Ask whether to show the next page
+    private boolean askForMore(String progress) {
+        System.out.print("-- " + progress + " -- Press Enter for more, or q to stop: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
     }
     
     private void searchContacts() {
@@ -130,11 +208,36 @@ public class ContactVault {
         System.out.print("Enter search keyword (name/phone/email): ");
         String keyword = scanner.nextLine();
         
-        if (!keyword.trim().isEmpty()) {
-            manager.displaySearchResults(keyword);
-        } else {
+        if (keyword.trim().isEmpty()) {
             System.out.println("Please enter a valid search keyword!");
+            return;
+        }
+        
+        // Fetch one page at a time, so a broad keyword does not build or
+        // print the whole result list
+        ContactPage page = manager.searchPage(keyword, null, PAGE_SIZE);
+        if (page.isEmpty()) {
+            System.out.println("No contacts found matching: " + keyword);
+            return;
+        }
+        
+        System.out.println("\n" + "=".repeat(70));
+        System.out.println("           SEARCH RESULTS FOR: " + keyword.toUpperCase());
+        System.out.println("=".repeat(70));
+        
+        int shown = 0;
+        while (true) {
+            for (Contact contact : page) {
+                System.out.printf("[%d] %s%n", manager.getPosition(contact) + 1, contact);
+            }
+            shown += page.size();
+            if (!page.hasMore() || !askForMore(shown + " shown")) {
+                break;
+            }
+            page = manager.searchPage(keyword, page.getNextToken(), PAGE_SIZE);
         }
+        System.out.println("=".repeat(70));
+        System.out.println((page.hasMore() ? "Showed " : "Found ") + shown + " contact(s)");
     }
     
     private void updateContact() {
@@ -147,7 +250,7 @@ public class ContactVault {
             return;
         }
         
-        manager.displayAllContacts();
+        showContactPages();
         System.out.print("\nEnter contact number to update: ");
         
         try {
@@ -200,7 +303,7 @@ public class ContactVault {
             return;
         }
         
-        manager.displayAllContacts();
+        showContactPages();
         System.out.print("\nEnter contact number to delete: ");
         
         try {
@@ -241,11 +344,11 @@ public class ContactVault {
         switch (choice) {
             case 1:
                 manager.sortContactsByName();
-                manager.displayAllContacts();
+                showContactPages();
                 break;
             case 2:
                 manager.sortContactsByPhone();
-                manager.displayAllContacts();
+                showContactPages();
                 break;
             default:
                 System.out.println("Invalid choice!");
@@ -294,29 +397,30 @@ public class ContactVault {
         System.out.println("\n" + "-".repeat(40));
         System.out.println("          STATISTICS");
         System.out.println("-".repeat(40));
-        System.out.println("Total Contacts: " + manager.getContactCount());
+        VaultStatistics statistics = manager.getStatistics();
+        System.out.println("Total Contacts: " + statistics.getTotal());
         
-        if (!manager.isEmpty()) {
-            // Count contacts with valid email and phone
-            ArrayList<Contact> allContacts = new ArrayList<>();
-            for (int i = 0; i < manager.getContactCount(); i++) {
-                Contact contact = manager.getContact(i);
-                if (contact != null) {
-                    allContacts.add(contact);
-                }
-            }
-            
-            long validEmails = allContacts.stream().filter(Contact::isValidEmail).count();
-            long validPhones = allContacts.stream().filter(Contact::isValidPhone).count();
-            
-            System.out.println("Contacts with valid email: " + validEmails);
-            System.out.println("Contacts with valid phone: " + validPhones);
+        if (statistics.getTotal() > 0) {
+            System.out.println("Contacts with valid email: " + statistics.getValidEmails()
+                    + " (invalid: " + statistics.getInvalidEmails() + ")");
+            System.out.println("Contacts with valid phone: " + statistics.getValidPhones()
+                    + " (invalid: " + statistics.getInvalidPhones() + ")");
+            System.out.println("Email domains: " + statistics.getDomainCount() + ", most common: "
+                    + statistics.getTopDomains());
+            System.out.println("Country codes: " + statistics.getCountryCodes());
+            System.out.println("Name initials: " + statistics.getInitials());
         }
         
-        System.out.println("Storage: ArrayList (Dynamic Array)");
+        System.out.println("Storage: ID-keyed hash table with maintained indexes and sorted views");
     }
     
     private void exitApplication() {
+        try {
+            manager.closeJournal();
+        } catch (java.io.IOException e) {
+            System.out.println("Error saving changes: " + e.getMessage());
+        }
+        
         System.out.println("\n" + "=".repeat(50));
         System.out.println("     Thank you for using Contact Vault!");
         System.out.println("           Goodbye! 👋");
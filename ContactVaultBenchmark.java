@@ -0,0 +1,234 @@
+import java.io.*;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.function.LongConsumer;
+
+/**
+ * Benchmark harness for the ContactManager hot paths
+ * Every benchmark runs warm-up iterations and then measured iterations on
+ * a vault pre-filled with synthetic contacts (ContactGenerator), timing
+ * each operation on its own. Reported per benchmark and vault size:
+ *   ops/s          operations per second over the measured iterations
+ *   p50..p99.9     per-operation latency in microseconds
+ *   B/op           heap bytes allocated per operation, all threads
+ *   GC             collections and collector time during measurement
+ * Benchmarks: add (new contact), duplicate (rejected add, i.e. the
+ * duplicate check), search, sort (switch order and read a contact),
+ * import and export (whole vault through a CSV file). Contacts and
+ * keywords are generated before the measurement, so only vault work is
+ * timed.
+ *
+ * Usage: java ContactVaultBenchmark [sizes] [benchmarks]
+ *   sizes       comma-separated vault sizes, default 1000,10000,100000
+ *               (10000000 needs a large heap, e.g. -Xmx16g)
+ *   benchmarks  comma-separated names, default all
+ */
+public class ContactVaultBenchmark {
+    private static final String[] ALL = {"add", "duplicate", "search", "sort", "import", "export"};
+    private static final int WARMUP_ITERATIONS = 2;
+    private static final int MEASURED_ITERATIONS = 5;
+    private static final int OPS_PER_ITERATION = 2000;
+    
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    
+    public static void main(String[] args) throws Exception {
+        int[] sizes = Arrays.stream((args.length > 0 ? args[0] : "1000,10000,100000").split(","))
+                .mapToInt(Integer::parseInt).toArray();
+        List<String> benchmarks = Arrays.asList(args.length > 1 ? args[1].split(",") : ALL);
+        
+        PrintStream console = System.out;
+        console.println("=".repeat(100));
+        console.println("     CONTACT VAULT - BENCHMARKS");
+        console.println("=".repeat(100));
+        console.println("Cores: " + Runtime.getRuntime().availableProcessors() + ", max heap: "
+                + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB, warm-up/measured iterations: "
+                + WARMUP_ITERATIONS + "/" + MEASURED_ITERATIONS);
+        console.printf("%n%-10s %10s %12s %9s %9s %9s %9s %11s %14s%n", "Benchmark", "Size", "ops/s",
+                "p50 us", "p90 us", "p99 us", "p99.9 us", "B/op", "GC count/ms");
+        console.println("-".repeat(100));
+        
+        File directory = createTempDirectory();
+        try {
+            for (int size : sizes) {
+                runSize(console, size, benchmarks, directory);
+            }
+        } finally {
+            for (File file : directory.listFiles()) {
+                file.delete();
+            }
+            directory.delete();
+        }
+    }
+    
+    private static void runSize(PrintStream console, int size, List<String> benchmarks, File directory)
+            throws IOException {
+        ContactGenerator generator = new ContactGenerator();
+        String csv = new File(directory, "vault-" + size + ".csv").getPath();
+        generator.writeCsv(csv, size);
+        
+        ContactManager manager = new ContactManager();
+        manager.importCsv(csv);
+        Random random = new Random(size);
+        
+        if (benchmarks.contains("add")) {
+            // Add unseen contacts, then delete them again outside the measurement
+            ArrayList<Contact> fresh = generator.contacts(size,
+                    (WARMUP_ITERATIONS + MEASURED_ITERATIONS) * OPS_PER_ITERATION);
+            int[] next = {0};
+            ArrayList<Long> added = new ArrayList<>(OPS_PER_ITERATION);
+            report(console, "add", size, measure(OPS_PER_ITERATION, op -> {
+                Contact contact = fresh.get(next[0]++);
+                manager.addContact(contact);
+                added.add(contact.getId());
+            }, () -> {
+                for (long id : added) {
+                    manager.deleteContactById(id);
+                }
+                added.clear();
+            }));
+        }
+        
+        if (benchmarks.contains("duplicate")) {
+            Contact[] duplicates = new Contact[OPS_PER_ITERATION];
+            for (int i = 0; i < duplicates.length; i++) {
+                duplicates[i] = generator.contact(random.nextInt(size));
+            }
+            report(console, "duplicate", size, measure(OPS_PER_ITERATION,
+                    op -> manager.addContact(duplicates[(int) op]), null));
+        }
+        
+        if (benchmarks.contains("search")) {
+            // Mix of name, email and phone fragments taken from stored contacts
+            String[] keywords = new String[OPS_PER_ITERATION];
+            for (int i = 0; i < keywords.length; i++) {
+                Contact contact = generator.contact(random.nextInt(size));
+                switch (i % 3) {
+                    case 0:
+                        keywords[i] = contact.getName().substring(contact.getName().indexOf(' ') + 1);
+                        break;
+                    case 1:
+                        keywords[i] = contact.getEmail().substring(0, contact.getEmail().indexOf('@'));
+                        break;
+                    default:
+                        keywords[i] = contact.getPhone().substring(2, 8);
+                }
+            }
+            report(console, "search", size, measure(OPS_PER_ITERATION,
+                    op -> manager.searchContacts(keywords[(int) op]), null));
+        }
+        
+        if (benchmarks.contains("sort")) {
+            report(console, "sort", size, measure(OPS_PER_ITERATION, op -> {
+                if (op % 2 == 0) {
+                    manager.sortContactsByName();
+                } else {
+                    manager.sortContactsByPhone();
+                }
+                manager.getContact(random.nextInt(size));
+            }, manager::clearSortOrder));
+        }
+        
+        if (benchmarks.contains("import")) {
+            report(console, "import", size, measure(1, op -> new ContactManager().importFromFile(csv), null));
+        }
+        
+        if (benchmarks.contains("export")) {
+            String exported = new File(directory, "export-" + size + ".csv").getPath();
+            report(console, "export", size, measure(1, op -> manager.exportToFile(exported), null));
+        }
+    }
+    
+    // Result of the measured iterations of one benchmark
+    private static class Result {
+        long[] latencies;
+        long totalNanos;
+        long allocatedBytes;
+        long gcCount;
+        long gcMillis;
+    }
+    
+    // Run warm-up and measured iterations of opsPerIteration operations each;
+    // afterIteration (optional) restores the vault between iterations
+    private static Result measure(int opsPerIteration, LongConsumer operation, Runnable afterIteration) {
+        Result result = new Result();
+        result.latencies = new long[MEASURED_ITERATIONS * opsPerIteration];
+        int recorded = 0;
+        
+        for (int iteration = 0; iteration < WARMUP_ITERATIONS + MEASURED_ITERATIONS; iteration++) {
+            boolean measured = iteration >= WARMUP_ITERATIONS;
+            System.gc();
+            long allocatedBefore = allocatedBytes();
+            long gcCountBefore = gcCount();
+            long gcMillisBefore = gcMillis();
+            long iterationStart = System.nanoTime();
+            
+            for (int op = 0; op < opsPerIteration; op++) {
+                long start = System.nanoTime();
+                operation.accept(op);
+                long elapsed = System.nanoTime() - start;
+                if (measured) {
+                    result.latencies[recorded++] = elapsed;
+                }
+            }
+            
+            if (measured) {
+                result.totalNanos += System.nanoTime() - iterationStart;
+                result.allocatedBytes += allocatedBytes() - allocatedBefore;
+                result.gcCount += gcCount() - gcCountBefore;
+                result.gcMillis += gcMillis() - gcMillisBefore;
+            }
+            if (afterIteration != null) {
+                afterIteration.run();
+            }
+        }
+        return result;
+    }
+    
+    private static void report(PrintStream console, String name, int size, Result result) {
+        long[] latencies = result.latencies;
+        Arrays.sort(latencies);
+        console.printf("%-10s %10d %12.1f %9.1f %9.1f %9.1f %9.1f %11d %14s%n", name, size,
+                latencies.length * 1e9 / result.totalNanos,
+                percentile(latencies, 0.50), percentile(latencies, 0.90),
+                percentile(latencies, 0.99), percentile(latencies, 0.999),
+                result.allocatedBytes / latencies.length, result.gcCount + "/" + result.gcMillis);
+    }
+    
+    // Latency at the given quantile, in microseconds (nearest rank)
+    private static double percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1000.0;
+    }
+    
+    // Bytes allocated so far by all live threads (import/export use the
+    // fork-join pool, so the calling thread alone is not enough)
+    private static long allocatedBytes() {
+        long total = 0;
+        for (long bytes : THREADS.getThreadAllocatedBytes(THREADS.getAllThreadIds())) {
+            total += Math.max(0, bytes);
+        }
+        return total;
+    }
+    
+    private static long gcCount() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionCount());
+        }
+        return total;
+    }
+    
+    private static long gcMillis() {
+        long total = 0;
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            total += Math.max(0, collector.getCollectionTime());
+        }
+        return total;
+    }
+    
+    private static File createTempDirectory() throws IOException {
+        return java.nio.file.Files.createTempDirectory("contact-vault-bench").toFile();
+    }
+}
@@ -0,0 +1,180 @@
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Load generator for ContactVaultServer
+ * Opens many concurrent connections (one thread each, virtual where
+ * available) that send requests back to back for a fixed time: GET of a
+ * random stored ID, SEARCH for a random phone fragment, and ADD of a new
+ * synthetic contact for the given share of writes. Reports requests per
+ * second and the p50..p99.9 round-trip latency over all connections.
+ * Without a host:port it starts an embedded server on a free port with a
+ * pre-filled vault, so client and server share this JVM.
+ *
+ * Usage: java ContactVaultLoadGenerator [host:port|embedded] [connections] [seconds] [write%]
+ *   defaults: embedded, 1000 connections, 10 seconds, 10% writes
+ */
+public class ContactVaultLoadGenerator {
+    private static final int EMBEDDED_CONTACTS = 10_000;
+    
+    // Indexes of added contacts start here, past any pre-filled vault
+    private static final long ADD_INDEX_BASE = 100_000_000L;
+    
+    public static void main(String[] args) throws Exception {
+        String target = args.length > 0 ? args[0] : "embedded";
+        int connections = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        int writePercent = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+        
+        ContactVaultServer embedded = null;
+        String host = "127.0.0.1";
+        int port;
+        if (target.equals("embedded")) {
+            ContactManager manager = new ConcurrentContactManager();
+            manager.addAll(new ContactGenerator().contacts(0, EMBEDDED_CONTACTS), ContactManager.BatchMode.BEST_EFFORT);
+            embedded = new ContactVaultServer(manager, 0);
+            embedded.start();
+            port = embedded.getPort();
+        } else {
+            int colon = target.lastIndexOf(':');
+            host = target.substring(0, colon);
+            port = Integer.parseInt(target.substring(colon + 1));
+        }
+        
+        System.out.println("=".repeat(70));
+        System.out.println("     CONTACT VAULT SERVER - LOAD TEST");
+        System.out.println("=".repeat(70));
+        System.out.println("Server: " + host + ":" + port + (embedded != null ? " (embedded, "
+                + EMBEDDED_CONTACTS + " contacts)" : "") + ", connections: " + connections
+                + ", duration: " + seconds + " s, writes: " + writePercent + "%");
+        
+        try {
+            run(host, port, connections, seconds, writePercent);
+        } finally {
+            if (embedded != null) {
+                embedded.close();
+            }
+        }
+    }
+    
+    private static void run(String host, int port, int connections, int seconds, int writePercent)
+            throws Exception {
+        long storedIds;
+        try (Connection probe = new Connection(host, port)) {
+            storedIds = Math.max(1, Long.parseLong(probe.call("COUNT").substring(3)));
+        }
+        
+        LatencyHistogram latency = new LatencyHistogram();
+        LongAdder rejected = new LongAdder();
+        LongAdder failedConnections = new LongAdder();
+        AtomicLong nextAdd = new AtomicLong(ADD_INDEX_BASE + ThreadLocalRandom.current().nextInt(1 << 20) * 1000L);
+        ContactGenerator generator = new ContactGenerator(System.nanoTime());
+        CountDownLatch connected = new CountDownLatch(connections);
+        CountDownLatch go = new CountDownLatch(1);
+        long[] window = new long[2];
+        
+        ExecutorService clients = ContactVaultServer.newPerTaskExecutor("vault-load");
+        for (int c = 0; c < connections; c++) {
+            clients.execute(() -> {
+                Connection connection = null;
+                try {
+                    connection = new Connection(host, port);
+                } catch (IOException e) {
+                    failedConnections.increment();
+                }
+                connected.countDown();
+                if (connection == null) {
+                    return;
+                }
+                try (Connection open = connection) {
+                    go.await();
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (System.nanoTime() < window[1]) {
+                        int pick = random.nextInt(100);
+                        String request;
+                        if (pick < writePercent) {
+                            Contact contact = generator.contact(nextAdd.getAndIncrement());
+                            request = "ADD " + contact.getName() + "\t" + contact.getPhone() + "\t" + contact.getEmail();
+                        } else if (pick % 2 == 0) {
+                            request = "GET " + (1 + random.nextLong(storedIds));
+                        } else {
+                            request = "SEARCH " + String.format("%05d", random.nextInt(100_000));
+                        }
+                        long start = System.nanoTime();
+                        String response = open.call(request);
+                        latency.record(System.nanoTime() - start);
+                        if (response.startsWith("ERR")) {
+                            rejected.increment();
+                        }
+                    }
+                } catch (IOException e) {
+                    failedConnections.increment();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+        }
+        
+        connected.await();
+        window[0] = System.nanoTime();
+        window[1] = window[0] + TimeUnit.SECONDS.toNanos(seconds);
+        go.countDown();
+        clients.shutdown();
+        clients.awaitTermination(seconds + 60L, TimeUnit.SECONDS);
+        double elapsed = (System.nanoTime() - window[0]) / 1e9;
+        
+        long[] quantiles = latency.getValuesAtQuantiles(0.5, 0.9, 0.99, 0.999);
+        System.out.println("-".repeat(70));
+        System.out.printf("Requests:      %,d (%,d answered with ERR)%n", latency.getCount(), rejected.sum());
+        System.out.printf("Throughput:    %,.0f requests/s%n", latency.getCount() / elapsed);
+        System.out.printf("Latency (us):  p50 %,d | p90 %,d | p99 %,d | p99.9 %,d | max %,d%n",
+                quantiles[0] / 1000, quantiles[1] / 1000, quantiles[2] / 1000, quantiles[3] / 1000,
+                latency.getMax() / 1000);
+        if (failedConnections.sum() > 0) {
+            System.out.println("Failed connections: " + failedConnections.sum());
+        }
+        System.out.println("=".repeat(70));
+    }
+    
+    // Blocking client connection: one request line, one response
+    private static class Connection implements Closeable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final Writer out;
+        
+        Connection(String host, int port) throws IOException {
+            this.socket = new Socket(host, port);
+            socket.setTcpNoDelay(true);
+            this.in = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+            this.out = new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+        }
+        
+        // Send a request and read its whole response; returns the first line
+        String call(String request) throws IOException {
+            out.write(request);
+            out.write('\n');
+            out.flush();
+            String status = in.readLine();
+            if (status == null) {
+                throw new EOFException("Server closed the connection");
+            }
+            if (request.startsWith("SEARCH ") && status.startsWith("OK ")) {
+                int lines = Integer.parseInt(status.split(" ")[1]);
+                for (int i = 0; i < lines; i++) {
+                    in.readLine();
+                }
+            }
+            return status;
+        }
+        
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+}
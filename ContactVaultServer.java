@@ -0,0 +1,397 @@
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ContactVaultServer class sharing one vault with many clients over TCP
+ * Listens on localhost only. Every connection gets its own thread: a virtual
+ * thread on JDKs that have them (21+), else a small-stack platform thread.
+ * Backpressure: at most maxConnections connections are accepted (further
+ * clients wait in the listen backlog) and at most maxInFlight requests run
+ * at once; a connection waiting for a slot stops reading, so its client is
+ * slowed down by TCP flow control instead of queueing work in the server.
+ *
+ * Protocol: one UTF-8 request per line, the command and its argument
+ * separated by a space and contact fields separated by tabs. Every request
+ * gets one line "OK ..." or "ERR <status> <message>"; SEARCH and LIST answer
+ * "OK <n>" followed by n contact lines, at most MAX_PAGE_SIZE of them. A
+ * SEARCH page that is not the last answers "OK <n> <token>"; the client
+ * passes the token back to get the next page. Contacts are sent as
+ * "id TAB name TAB phone TAB email" (tabs and line breaks inside a field
+ * are sent as spaces).
+ *   PING                          OK PONG
+ *   ADD name TAB phone TAB email  OK <id>
+ *   GET id                        OK <contact>
+ *   UPDATE id TAB name TAB phone TAB email
+ *   DELETE id                     OK <id>
+ *   SEARCH keyword [TAB token]    OK <n> [<token>], then n contacts
+ *   LIST offset limit             OK <n>, then n contacts
+ *   COUNT                         OK <n>
+ *   IMPORT file                   OK <accepted> <rejected>   (in the data directory)
+ *   EXPORT file                   OK <n>                     (in the data directory)
+ *   QUIT                          OK BYE, then the server closes the connection
+ * Requests may be pipelined; responses are flushed once no further request
+ * is buffered. IMPORT and EXPORT file names are resolved against the data
+ * directory; names that lead outside it are refused.
+ */
+public class ContactVaultServer implements AutoCloseable {
+    public static final int DEFAULT_PORT = 7070;
+    public static final int DEFAULT_MAX_CONNECTIONS = 10_000;
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4 * Runtime.getRuntime().availableProcessors();
+    
+    // Longer request lines are refused and the connection is closed
+    static final int MAX_REQUEST_LENGTH = 64 * 1024;
+    
+    // Most contacts sent for one SEARCH or LIST request; larger LIST limits
+    // are cut down to it, so no request makes the server buffer the vault
+    static final int MAX_PAGE_SIZE = 1000;
+    
+    // Stack size of fallback platform threads, so thousands of them fit
+    private static final long PLATFORM_STACK_SIZE = 256 * 1024;
+    
+    private final ContactManager manager;
+    private final Path dataDirectory;
+    private final ServerSocket serverSocket;
+    private final Semaphore connections;
+    private final Semaphore inFlight;
+    private final ExecutorService executor;
+    private final Set<Socket> open = ConcurrentHashMap.newKeySet();
+    private final LongAdder requests = new LongAdder();
+    private final Thread acceptor;
+    private volatile boolean closed;
+    
+    // Serve a manager on localhost:port (0 picks a free port), with the
+    // working directory as data directory. The manager must be thread-safe,
+    // i.e. a ConcurrentContactManager.
+    public ContactVaultServer(ContactManager manager, int port) throws IOException {
+        this(manager, port, Paths.get(""));
+    }
+    
+    // Same with the (existing) directory that IMPORT and EXPORT may use
+    public ContactVaultServer(ContactManager manager, int port, Path dataDirectory) throws IOException {
+        this(manager, port, dataDirectory, DEFAULT_MAX_CONNECTIONS, DEFAULT_MAX_IN_FLIGHT);
+    }
+    
+    public ContactVaultServer(ContactManager manager, int port, Path dataDirectory, int maxConnections,
+            int maxInFlight) throws IOException {
+        this.manager = manager;
+        this.dataDirectory = dataDirectory.toRealPath();
+        this.serverSocket = new ServerSocket(port, Math.min(maxConnections, 4096), InetAddress.getLoopbackAddress());
+        this.connections = new Semaphore(maxConnections);
+        this.inFlight = new Semaphore(maxInFlight);
+        this.executor = newPerTaskExecutor("vault-connection");
+        
+        VaultMetrics metrics = manager.getMetrics();
+        metrics.registerGauge("server_connections", "Open client connections", open::size);
+        metrics.registerGauge("server_requests_in_flight", "Requests being executed",
+                () -> maxInFlight - inFlight.availablePermits());
+        metrics.registerGauge("server_requests", "Requests received since the server started", requests::sum);
+        
+        this.acceptor = new Thread(this::acceptLoop, "vault-server-accept");
+    }
+    
+    // Start accepting connections; the accept thread keeps the JVM alive
+    // until close()
+    public void start() {
+        acceptor.start();
+    }
+    
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+    
+    public int getConnectionCount() {
+        return open.size();
+    }
+    
+    public long getRequestCount() {
+        return requests.sum();
+    }
+    
+    // Stop accepting, drop all connections and wait for their threads. If
+    // the caller is interrupted, it returns early with its interrupt flag set.
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        serverSocket.close();
+        for (Socket socket : open) {
+            socket.close();
+        }
+        acceptor.interrupt(); // It may be waiting for a free connection slot
+        executor.shutdown();
+        try {
+            executor.awaitTermination(10, TimeUnit.SECONDS);
+            acceptor.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+    
+    // One virtual thread per task where the JDK has them, else a cached pool
+    // of small-stack daemon platform threads
+    static ExecutorService newPerTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger threads = new AtomicInteger();
+            return Executors.newCachedThreadPool(runnable -> {
+                Thread thread = new Thread(null, runnable, name + "-" + threads.incrementAndGet(),
+                        PLATFORM_STACK_SIZE);
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+    
+    private void acceptLoop() {
+        while (!closed) {
+            try {
+                connections.acquire();
+            } catch (InterruptedException e) {
+                return;
+            }
+            Socket socket;
+            try {
+                socket = serverSocket.accept();
+            } catch (IOException e) {
+                connections.release();
+                if (closed) {
+                    return;
+                }
+                continue; // Client gave up before it was accepted
+            }
+            open.add(socket);
+            if (closed) {
+                closeQuietly(socket); // close() may have missed it
+            }
+            try {
+                executor.execute(() -> serve(socket));
+            } catch (RejectedExecutionException e) {
+                closeQuietly(socket);
+                return;
+            }
+        }
+    }
+    
+    private void serve(Socket socket) {
+        try (BufferedReader in = new BufferedReader(
+                     new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+             Writer out = new BufferedWriter(
+                     new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8))) {
+            socket.setTcpNoDelay(true);
+            StringBuilder response = new StringBuilder(256);
+            String request;
+            while ((request = readRequest(in)) != null) {
+                requests.increment();
+                response.setLength(0);
+                if (request.length() > MAX_REQUEST_LENGTH) {
+                    out.write("ERR INVALID Request longer than " + MAX_REQUEST_LENGTH + " characters\n");
+                    break;
+                }
+                if (request.equals("QUIT")) {
+                    out.write("OK BYE\n");
+                    break;
+                }
+                
+                inFlight.acquire();
+                try {
+                    execute(request, response);
+                } finally {
+                    inFlight.release();
+                }
+                out.append(response);
+                if (!in.ready()) {
+                    out.flush();
+                }
+            }
+            out.flush();
+        } catch (IOException e) {
+            // Client went away or the server is closing
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeQuietly(socket);
+            open.remove(socket);
+            connections.release();
+        }
+    }
+    
+    // Next line without its terminator, null at end of stream. A line over
+    // the limit is cut off after MAX_REQUEST_LENGTH + 1 characters.
+    private static String readRequest(BufferedReader in) throws IOException {
+        StringBuilder line = new StringBuilder(64);
+        int c;
+        while ((c = in.read()) >= 0) {
+            if (c == '\n') {
+                break;
+            }
+            if (line.length() > MAX_REQUEST_LENGTH) {
+                return line.toString();
+            }
+            line.append((char) c);
+        }
+        if (c < 0 && line.length() == 0) {
+            return null;
+        }
+        int end = line.length();
+        if (end > 0 && line.charAt(end - 1) == '\r') {
+            line.setLength(end - 1);
+        }
+        return line.toString();
+    }
+    
+    // Run one request and append its response lines
+    void execute(String request, StringBuilder out) {
+        int space = request.indexOf(' ');
+        String command = (space < 0 ? request : request.substring(0, space)).toUpperCase(Locale.ROOT);
+        String argument = space < 0 ? "" : request.substring(space + 1);
+        try {
+            switch (command) {
+                case "PING":
+                    out.append("OK PONG\n");
+                    break;
+                case "ADD": {
+                    String[] fields = fields(argument, 3);
+                    appendResult(out, manager.addContact(new Contact(fields[0], fields[1], fields[2])));
+                    break;
+                }
+                case "GET": {
+                    Contact contact = manager.getContactById(parseId(argument));
+                    if (contact == null) {
+                        out.append("ERR NOT_FOUND Error: Invalid contact ID!\n");
+                    } else {
+                        appendContact(out.append("OK "), contact);
+                    }
+                    break;
+                }
+                case "UPDATE": {
+                    String[] fields = fields(argument, 4);
+                    appendResult(out, manager.updateContactById(parseId(fields[0]),
+                            new Contact(fields[1], fields[2], fields[3])));
+                    break;
+                }
+                case "DELETE":
+                    appendResult(out, manager.deleteContactById(parseId(argument)));
+                    break;
+                case "SEARCH": {
+                    int tab = argument.indexOf('\t');
+                    ContactPage page = tab < 0
+                            ? manager.searchPage(argument, null, MAX_PAGE_SIZE)
+                            : manager.searchPage(argument.substring(0, tab), argument.substring(tab + 1).trim(),
+                                    MAX_PAGE_SIZE);
+                    appendContacts(out, page.getContacts(), page.getNextToken());
+                    break;
+                }
+                case "LIST": {
+                    String[] range = argument.trim().split(" +");
+                    if (range.length != 2) {
+                        throw new IllegalArgumentException("Expected LIST offset limit");
+                    }
+                    int limit = Math.min(Integer.parseInt(range[1]), MAX_PAGE_SIZE);
+                    appendContacts(out, manager.getContacts(Integer.parseInt(range[0]), limit), null);
+                    break;
+                }
+                case "COUNT":
+                    out.append("OK ").append(manager.getContactCount()).append('\n');
+                    break;
+                case "IMPORT": {
+                    ImportReport report = manager.importCsv(dataFile(argument));
+                    out.append("OK ").append(report.getAccepted()).append(' ').append(report.getRejected()).append('\n');
+                    break;
+                }
+                case "EXPORT": {
+                    String file = dataFile(argument);
+                    int count = manager.getContactCount();
+                    manager.exportCsv(file, file.endsWith(".gz"));
+                    out.append("OK ").append(count).append('\n');
+                    break;
+                }
+                default:
+                    out.append("ERR INVALID Unknown command: ").append(clean(command)).append('\n');
+            }
+        } catch (IllegalArgumentException e) {
+            out.setLength(0);
+            out.append("ERR INVALID ").append(clean(String.valueOf(e.getMessage()))).append('\n');
+        } catch (IOException | UncheckedIOException e) {
+            out.setLength(0);
+            out.append("ERR IO ").append(clean(String.valueOf(e.getMessage()))).append('\n');
+        }
+    }
+    
+    private static String[] fields(String argument, int count) {
+        String[] fields = argument.split("\t", -1);
+        if (fields.length != count) {
+            throw new IllegalArgumentException("Expected " + count + " tab-separated fields, got " + fields.length);
+        }
+        return fields;
+    }
+    
+    // A client-supplied file name resolved inside the data directory; names
+    // that leave it (absolute paths, "..", symbolic links) are refused
+    private String dataFile(String name) throws IOException {
+        Path file = dataDirectory.resolve(name.trim()).normalize();
+        Path existing = Files.exists(file) ? file : file.getParent();
+        if (!file.startsWith(dataDirectory) || file.equals(dataDirectory) || existing == null
+                || !existing.toRealPath().startsWith(dataDirectory)) {
+            throw new IllegalArgumentException("File must be inside the server's data directory: " + name.trim());
+        }
+        return file.toString();
+    }
+    
+    private static long parseId(String text) {
+        return Long.parseLong(text.trim());
+    }
+    
+    private static void appendResult(StringBuilder out, OperationResult result) {
+        if (result.isSuccess()) {
+            out.append("OK ").append(result.getContact().getId()).append('\n');
+        } else {
+            out.append("ERR ").append(result.getStatus()).append(' ').append(clean(result.getMessage())).append('\n');
+        }
+    }
+    
+    // "OK <n>", the next page's token if there is one, then the contacts
+    private static void appendContacts(StringBuilder out, List<Contact> contacts, String nextToken) {
+        out.append("OK ").append(contacts.size());
+        if (nextToken != null) {
+            out.append(' ').append(nextToken);
+        }
+        out.append('\n');
+        for (Contact contact : contacts) {
+            appendContact(out, contact);
+        }
+    }
+    
+    private static void appendContact(StringBuilder out, Contact contact) {
+        out.append(contact.getId()).append('\t')
+           .append(clean(contact.getName())).append('\t')
+           .append(clean(contact.getPhone())).append('\t')
+           .append(clean(contact.getEmail())).append('\n');
+    }
+    
+    // Field text with protocol separators replaced by spaces
+    private static String clean(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\t' || c == '\n' || c == '\r') {
+                return value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+            }
+        }
+        return value;
+    }
+    
+    private static void closeQuietly(Socket socket) {
+        try {
+            socket.close();
+        } catch (IOException e) {
+            // Already closed
+        }
+    }
+}
@@ -9,6 +9,8 @@ public class ContactVaultTest {
         System.out.println("=".repeat(60));
         
         ContactManager manager = new ContactManager();
+        ConsoleContactListener console = new ConsoleContactListener();
+        manager.addListener(console);
         
         // Test 1: Adding contacts
         System.out.println("\n1. Testing Add Contact functionality:");
@@ -25,39 +27,96 @@ public class ContactVaultTest {
         // Test 2: Display all contacts
         System.out.println("\n2. Displaying all contacts:");
         System.out.println("-".repeat(40));
-        manager.displayAllContacts();
+        console.displayAllContacts(manager);
         
         // Test 3: Testing duplicate validation
         System.out.println("\n3. Testing duplicate validation:");
         System.out.println("-".repeat(40));
         Contact duplicate = new Contact("John Smith", "1234567890", "different@email.com");
         manager.addContact(duplicate); // Should fail - same phone
+        Contact formatted = new Contact("John Other", "123-456-7890", "other@email.com");
+        manager.addContact(formatted); // Should fail - same phone once normalized
+        Contact sameEmail = new Contact("Janet", "1112223333", "JANE.SMITH@gmail.com");
+        manager.addContact(sameEmail); // Should fail - same email ignoring case
         
         // Test 4: Search functionality
         System.out.println("\n4. Testing search functionality:");
         System.out.println("-".repeat(40));
-        manager.displaySearchResults("john");
-        manager.displaySearchResults("@gmail.com");
-        manager.displaySearchResults("555");
+        console.displaySearchResults(manager, "john");
+        console.displaySearchResults(manager, "@gmail.com");
+        console.displaySearchResults(manager, "555");
+        System.out.println("Autocomplete 'j': " + manager.autocomplete("j", 5));
+        System.out.println("Autocomplete 'smi': " + manager.autocomplete("smi", 5));
+        System.out.println("Phone starts with 98: " + manager.findByPhonePrefix("98", 5));
+        System.out.println("Phone ends with 123-456: " + manager.findByPhoneSuffix("123-456", 5));
         
         // Test 5: Sorting
         System.out.println("\n5. Testing sort functionality:");
         System.out.println("-".repeat(40));
         manager.sortContactsByName();
-        manager.displayAllContacts();
+        console.displayAllContacts(manager);
         
         // Test 6: Update contact
         System.out.println("\n6. Testing update functionality:");
         System.out.println("-".repeat(40));
         Contact updatedContact = new Contact("John Doe Jr.", "1234567890", "john.doe.jr@email.com");
         manager.updateContact(0, updatedContact);
-        manager.displayAllContacts();
+        console.displayAllContacts(manager);
+        
+        // IDs stay with the contact whatever the current order
+        long id = manager.searchContacts("john.doe@").get(0).getId();
+        manager.clearSortOrder();
+        System.out.println("Contact " + id + ": " + manager.getContactById(id));
+        manager.updateContactById(id, new Contact("John Doe", "1234567890", "john.doe@email.com"));
+        System.out.println("Contact " + id + ": " + manager.getContactById(id));
+        manager.deleteContactById(-1); // Unknown ID
+        manager.sortContactsByName();
         
         // Test 7: Export to file
         System.out.println("\n7. Testing export functionality:");
         System.out.println("-".repeat(40));
         manager.exportToFile("test_export.csv");
         
+        // Re-import the exported file into a fresh manager
+        ContactManager imported = new ContactManager();
+        try {
+            System.out.println(imported.importCsv("test_export.csv"));
+            System.out.println(manager.importCsv("test_export.csv")); // All rows are duplicates
+            
+            // A stray quote inside an unquoted field only rejects its own row
+            java.nio.file.Files.write(java.nio.file.Paths.get("test_quote.csv"), java.util.Arrays.asList(
+                    "Name,Phone,Email",
+                    "Pat O\"Brien,1111111111,pat@x.com",
+                    "Ann Lee,2222222222,ann@x.com",
+                    "\"Bo \"\"B\"\" Ray\",3333333333,bo@x.com",
+                    "Cy Dunn,4444444444,cy@x.com",
+                    "\"Di\nEve\",5555555555,di@x.com",
+                    "Ed Fox,6666666666,ed@x.com"));
+            System.out.println(new ContactManager().importCsv("test_quote.csv"));
+            
+            // Memory-mapped import with tiny windows must match the streaming import
+            java.util.List<String> rows = new java.util.ArrayList<>();
+            rows.add("Name,Phone,Email");
+            for (int i = 0; i < 200; i++) {
+                String phone = String.format("555%07d", i);
+                rows.add(i % 7 == 0 ? "\"Row\n" + i + "\"," + phone + ",r" + i + "@x.com"
+                        : i % 11 == 0 ? "Row O\"" + i + "," + phone + ",r" + i + "@x.com"
+                        : i % 13 == 0 ? "Row " + i + ",," + phone
+                        : "Row " + i + "," + phone + ",r" + i + "@x.com");
+            }
+            java.nio.file.Files.write(java.nio.file.Paths.get("test_windows.csv"), rows);
+            java.util.List<String> streamed = new java.util.ArrayList<>();
+            java.util.List<String> mapped = new java.util.ArrayList<>();
+            ImportReport streamedReport = CsvImporter.importFile("test_windows.csv", batch -> keepAll(batch, streamed));
+            ImportReport mappedReport = MappedCsvImporter.importFile("test_windows.csv", batch -> keepAll(batch, mapped), 256);
+            System.out.println("Mapped import in 256-byte windows: " + mappedReport.getAccepted() + " accepted, "
+                    + mappedReport.getInvalid() + " invalid; same rows and rejected lines as streaming: "
+                    + (streamed.equals(mapped) && streamedReport.getInvalidLines().equals(mappedReport.getInvalidLines())
+                    && streamedReport.getMalformedLines().equals(mappedReport.getMalformedLines())));
+        } catch (java.io.IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+        }
+        
         // Test 8: Statistics
         System.out.println("\n8. Contact Statistics:");
         System.out.println("-".repeat(40));
@@ -68,15 +127,346 @@ public class ContactVaultTest {
         System.out.println("\n9. Testing delete functionality:");
         System.out.println("-".repeat(40));
         System.out.println("Before delete:");
-        manager.displayAllContacts();
+        console.displayAllContacts(manager);
         
         manager.deleteContact(1);
         
         System.out.println("\nAfter delete:");
-        manager.displayAllContacts();
+        console.displayAllContacts(manager);
+        
+        // Test 10: Journal replay and snapshots
+        System.out.println("\n10. Testing journal replay and snapshots:");
+        System.out.println("-".repeat(40));
+        try {
+            java.io.File journalFile = java.io.File.createTempFile("contacts", ".journal");
+            journalFile.deleteOnExit();
+            ContactManager journaled = new ContactManager();
+            journaled.addListener(new ConsoleContactListener());
+            journaled.openJournal(journalFile.getPath(), 1, 0);
+            journaled.addContact(new Contact("John Doe", "1234567890", "john.doe@email.com"));
+            journaled.addContact(new Contact("Jane Smith", "9876543210", "jane.smith@gmail.com"));
+            journaled.updateContactById(1, new Contact("John Doe", "1234567890", "john@work.com"));
+            journaled.deleteContactById(2);
+            journaled.closeJournal();
+            
+            ContactManager restored = new ContactManager();
+            restored.addListener(new ConsoleContactListener());
+            System.out.println("Replayed records: " + restored.openJournal(journalFile.getPath()));
+            console.displayAllContacts(restored);
+            restored.compactJournal();
+            restored.addContact(new Contact("Alice Johnson", "5555123456", "alice.j@company.com"));
+            restored.closeJournal();
+            
+            ContactManager compacted = new ContactManager();
+            System.out.println("Replayed records after compaction: " + compacted.openJournal(journalFile.getPath()));
+            System.out.println("Alice got ID: " + compacted.searchContacts("alice").get(0).getId());
+            compacted.closeJournal();
+            new java.io.File(journalFile.getPath() + ".snapshot").deleteOnExit();
+            
+            // A compacted journal without its snapshot must not replay partially
+            java.io.File journalSnapshot = new java.io.File(journalFile.getPath() + ".snapshot");
+            java.io.File moved = new java.io.File(journalFile.getPath() + ".moved");
+            journalSnapshot.renameTo(moved);
+            try {
+                new ContactManager().openJournal(journalFile.getPath());
+                System.out.println("Replayed a compacted journal without its snapshot!");
+            } catch (java.io.IOException e) {
+                System.out.println("Compacted journal without snapshot refused: "
+                        + e.getMessage().endsWith("is missing"));
+            }
+            moved.renameTo(journalSnapshot);
+            
+            java.io.File snapshotFile = java.io.File.createTempFile("contacts", ".snapshot");
+            snapshotFile.deleteOnExit();
+            manager.saveSnapshot(snapshotFile.getPath());
+            ContactManager loaded = new ContactManager();
+            System.out.println("Loaded " + loaded.loadSnapshot(snapshotFile.getPath()) + " contacts from snapshot");
+            console.displayAllContacts(loaded);
+            
+            // Loading into a journaled manager must survive a restart
+            java.io.File loadJournal = java.io.File.createTempFile("contacts", ".journal");
+            loadJournal.deleteOnExit();
+            new java.io.File(loadJournal.getPath() + ".snapshot").deleteOnExit();
+            ContactManager journaledLoad = new ContactManager();
+            journaledLoad.openJournal(loadJournal.getPath());
+            journaledLoad.loadSnapshot(snapshotFile.getPath());
+            journaledLoad.closeJournal();
+            ContactManager reopened = new ContactManager();
+            reopened.openJournal(loadJournal.getPath());
+            System.out.println("Contacts after reopening a journal loaded from a snapshot: "
+                    + reopened.getContactCount());
+            reopened.closeJournal();
+        } catch (java.io.IOException e) {
+            System.out.println("Journal test failed: " + e.getMessage());
+        }
+        
+        // Test 11: Email domains
+        System.out.println("\n11. Testing email domain lookups:");
+        System.out.println("-".repeat(40));
+        System.out.println("Top domains: " + manager.getTopDomains(5));
+        System.out.println("At email.com: " + manager.findByDomain("@EMAIL.com"));
+        ContactManager namesakes = new ContactManager();
+        namesakes.addContact(new Contact("Ann Lee", "1111111111", "ann@one.com"));
+        namesakes.addContact(new Contact(new String("Ann Lee"), "2222222222", "ann@two.com"));
+        System.out.println("Same-name contacts share one name instance: "
+                + (namesakes.getContactById(1).getName() == namesakes.getContactById(2).getName()));
+        
+        // Test 12: Allocation-free matching
+        System.out.println("\n12. Testing allocation-free matching:");
+        System.out.println("-".repeat(40));
+        Contact probe = new Contact("John Doe", "1234567890", "John.Doe@Email.com");
+        java.lang.management.ThreadMXBean threads = java.lang.management.ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            long threadId = Thread.currentThread().getId();
+            int calls = 100_000;
+            boolean found = false;
+            for (int i = 0; i < calls; i++) {
+                found |= probe.matches("EMAIL.COM"); // Warm-up
+            }
+            long before = allocations.getThreadAllocatedBytes(threadId);
+            for (int i = 0; i < calls; i++) {
+                found &= probe.matches("doe@e");
+            }
+            long bytes = allocations.getThreadAllocatedBytes(threadId) - before;
+            System.out.println("Matched: " + found + ", bytes allocated per matches call: " + bytes / calls);
+        }
+        
+        // Test 13: Metrics
+        System.out.println("\n13. Testing operation metrics:");
+        System.out.println("-".repeat(40));
+        VaultMetrics metrics = manager.getMetrics();
+        System.out.println("Adds: " + metrics.getCount(VaultMetrics.Operation.ADD) + " ("
+                + metrics.getFailures(VaultMetrics.Operation.ADD) + " rejected), duplicates rejected: "
+                + metrics.getCount(VaultMetrics.Counter.REJECTED_DUPLICATE) + ", searches: "
+                + metrics.getCount(VaultMetrics.Operation.SEARCH));
+        System.out.println("Gauges: contacts=" + metrics.getGauges().get("contacts")
+                + ", email_domains=" + metrics.getGauges().get("email_domains"));
+        String prometheus = metrics.toPrometheus();
+        System.out.println("Prometheus add line: " + prometheus.lines()
+                .filter(line -> line.startsWith("contactvault_operations_total{operation=\"add\",outcome=\"ok\"}"))
+                .findFirst().orElse("missing"));
+        System.out.println("Add latency recorded: "
+                + (metrics.getLatency(VaultMetrics.Operation.ADD).getValueAtQuantile(0.99) > 0));
+        
+        // Test 14: Result objects and listeners
+        System.out.println("\n14. Testing result objects and listeners:");
+        System.out.println("-".repeat(40));
+        ContactManager headless = new ContactManager();
+        OperationResult added = headless.addContact(new Contact("Bob Stone", "12345", "bob.stone@email.com"));
+        OperationResult rejected = headless.addContact(new Contact("Bobby Stone", "12345", "bobby@email.com"));
+        System.out.println("Added: " + added.getStatus() + ", ID " + added.getContact().getId()
+                + ", warnings " + added.getWarnings());
+        System.out.println("Rejected: " + rejected);
+        System.out.println("Delete missing: " + headless.deleteContactById(99).getStatus());
+        try (AsyncContactListener async = new AsyncContactListener(new ConsoleContactListener())) {
+            headless.addListener(async);
+            headless.updateContactById(added.getContact().getId(),
+                    new Contact("Bob Stone", "1234567890", "bob.stone@email.com"));
+            headless.sortContactsByName();
+        }
+        
+        // Test 15: Batch operations
+        System.out.println("\n15. Testing batch operations:");
+        System.out.println("-".repeat(40));
+        ContactManager batched = new ContactManager();
+        batched.addListener(new ConsoleContactListener());
+        java.util.List<Contact> batch = java.util.List.of(
+                new Contact("Ann Lee", "1111111111", "ann@lee.com"),
+                new Contact("Ben Lee", "2222222222", "ben@lee.com"),
+                new Contact("Ann Again", "111-111-1111", "ann2@lee.com"),
+                new Contact("", "3333333333", "nobody@lee.com"));
+        OperationResult[] strict = batched.addAll(batch, ContactManager.BatchMode.ALL_OR_NOTHING);
+        System.out.println("All-or-nothing: " + strict[0].getStatus() + ", " + strict[2].getStatus() + ", "
+                + strict[3].getStatus() + "; stored " + batched.getContactCount());
+        OperationResult[] lenient = batched.addAll(batch, ContactManager.BatchMode.BEST_EFFORT);
+        System.out.println("Best-effort: " + java.util.Arrays.toString(
+                java.util.Arrays.stream(lenient).map(OperationResult::getStatus).toArray()));
+        batched.updateAll(new long[] {1, 2}, java.util.List.of(
+                new Contact("Ann Lee", "1111111111", "ann@lee.org"),
+                new Contact("Ben Lee", "1111111111", "ben@lee.org")), ContactManager.BatchMode.BEST_EFFORT);
+        OperationResult[] swapped = batched.updateAll(new long[] {1, 2}, java.util.List.of(
+                new Contact("Ann Lee", "2222222222", "ann@lee.org"),
+                new Contact("Ben Lee", "1111111111", "ben@lee.org")), ContactManager.BatchMode.ALL_OR_NOTHING);
+        System.out.println("Swapped phones: " + swapped[0].getStatus() + ", " + swapped[1].getStatus()
+                + "; 1111111111 belongs to " + batched.getContactByPhone("1111111111").getName());
+        OperationResult[] deleted = batched.deleteAll(new long[] {2, 2, 42}, ContactManager.BatchMode.BEST_EFFORT);
+        System.out.println("Deleted: " + java.util.Arrays.toString(
+                java.util.Arrays.stream(deleted).map(OperationResult::getStatus).toArray()));
+        console.displayAllContacts(batched);
+        
+        // Test 16: Incremental statistics
+        System.out.println("\n16. Testing incremental statistics:");
+        System.out.println("-".repeat(40));
+        batched.addContact(new Contact("bob Ray", "+91 98765 43210", "bob@ray.in"));
+        batched.addContact(new Contact("Cat Ray", "+1-202-555-0100", "cat@ray.in"));
+        batched.addContact(new Contact("Dan Ray", "+358401234567", "dan.ray.in"));
+        batched.deleteContactById(1);
+        VaultStatistics statistics = batched.getStatistics();
+        System.out.println("Total: " + statistics.getTotal() + ", valid emails: " + statistics.getValidEmails()
+                + ", invalid emails: " + statistics.getInvalidEmails() + ", valid phones: "
+                + statistics.getValidPhones());
+        System.out.println("Domains (" + statistics.getDomainCount() + "): " + statistics.getTopDomains());
+        System.out.println("Country codes: " + statistics.getCountryCodes());
+        System.out.println("Initials: " + statistics.getInitials());
+        
+        // Test 17: Fuzzy duplicate detection
+        System.out.println("\n17. Testing fuzzy duplicate detection:");
+        System.out.println("-".repeat(40));
+        ContactManager fuzzy = new ContactManager();
+        fuzzy.addAll(java.util.List.of(
+                new Contact("John Doe", "1234567890", "john.doe@email.com"),
+                new Contact("Jon Doe", "+44 123-456-7890", "jdoe@work.com"),
+                new Contact("J. Doe", "1234567899", "john.doe+vault@email.org"),
+                new Contact("Priya Sharma", "+91 98765 43210", "priya@mail.in"),
+                new Contact("Priya Sharma", "9876543210", "p.sharma@corp.in"),
+                new Contact("Mary Major", "5550001111", "mary@major.com")), ContactManager.BatchMode.BEST_EFFORT);
+        for (java.util.ArrayList<Contact> cluster : fuzzy.findDuplicates()) {
+            System.out.println("Cluster:");
+            for (Contact contact : cluster) {
+                System.out.println("  " + contact);
+            }
+        }
+        System.out.printf("Score 'John Doe' vs 'Jon Doe': %.3f%n",
+                DuplicateDetector.score(fuzzy.getContactById(1), fuzzy.getContactById(2)));
+        
+        // A placeholder phone shared by too many contacts must not hide the pair
+        java.util.List<Contact> dirty = new java.util.ArrayList<>();
+        dirty.add(new Contact("John Doe", "0000000000", "john.doe@a.com"));
+        dirty.add(new Contact("Jon Doe", "0000000000", "johndoe@b.com"));
+        for (int i = 0; i < 600; i++) {
+            dirty.add(new Contact("Filler " + i, "0000000000", "filler" + i + "@x.com"));
+        }
+        System.out.println("Clusters with 600 shared placeholder phones: "
+                + new DuplicateDetector().findClusters(dirty).size());
+        
+        // Test 18: Identity keys and hash-consistent equality
+        System.out.println("\n18. Testing phone/email keys and equality:");
+        System.out.println("-".repeat(40));
+        Contact original = new Contact("Ann Lee", "+1 (555) 010-2030", "Ann.Lee@Example.com");
+        Contact reformatted = new Contact("Annie Lee", "15550102030", "ann.lee@example.com");
+        Contact samePhone = new Contact("Ann L", "1-555-010-2030", "ann@other.com");
+        System.out.println("Phone keys equal: " + original.getPhoneKey().equals(reformatted.getPhoneKey())
+                + " (" + original.getPhoneKey() + ")");
+        System.out.println("Email keys equal: " + original.getEmailKey().equals(reformatted.getEmailKey())
+                + " (" + original.getEmailKey() + ")");
+        System.out.println("Equal: " + original.equals(reformatted)
+                + ", same hash: " + (original.hashCode() == reformatted.hashCode()));
+        System.out.println("Same phone only -> equal: " + original.equals(samePhone)
+                + ", duplicate: " + original.isDuplicateOf(samePhone));
+        java.util.HashSet<Contact> contactSet = new java.util.HashSet<>(
+                java.util.List.of(original, reformatted, samePhone));
+        System.out.println("HashSet size (expected 2): " + contactSet.size());
+        ContactManager keyed = new ContactManager();
+        keyed.addContact(original);
+        System.out.println("By phone '15550102030': " + keyed.getContactByPhone("15550102030").getName());
+        System.out.println("By email 'ANN.LEE@example.com': " + keyed.getContactByEmail("ANN.LEE@example.com").getName());
+        System.out.println("Add same-phone contact: " + keyed.addContact(samePhone).getStatus());
+        
+        // Test 19: Network server
+        System.out.println("\n19. Testing the network server:");
+        System.out.println("-".repeat(40));
+        try (ContactVaultServer server = new ContactVaultServer(new ConcurrentContactManager(), 0)) {
+            server.start();
+            try (java.net.Socket socket = new java.net.Socket("127.0.0.1", server.getPort());
+                 java.io.BufferedReader in = new java.io.BufferedReader(
+                         new java.io.InputStreamReader(socket.getInputStream(), "UTF-8"));
+                 java.io.PrintWriter out = new java.io.PrintWriter(
+                         new java.io.OutputStreamWriter(socket.getOutputStream(), "UTF-8"), true)) {
+                String[] requests = {
+                    "PING",
+                    "ADD John Doe\t1234567890\tjohn.doe@email.com",
+                    "ADD Jane Smith\t9876543210\tjane.smith@gmail.com",
+                    "ADD Johnny\t+1 234 567 890\tother@email.com",
+                    "UPDATE 2\tJane Smith\t9876543210\tjane@work.com",
+                    "GET 2",
+                    "SEARCH john",
+                    "SEARCH john\tnot-a-token",
+                    "LIST 0 2147483647",
+                    "DELETE 1",
+                    "GET 1",
+                    "COUNT",
+                    "EXPORT server_export.csv",
+                    "IMPORT ../server_export.csv",
+                    "EXPORT /tmp/outside.csv",
+                    "FROB",
+                    "QUIT"
+                };
+                for (String request : requests) {
+                    out.println(request);
+                    String status = in.readLine();
+                    System.out.println(request.replace('\t', '|') + " -> " + status.replace('\t', '|'));
+                    if ((request.startsWith("SEARCH") || request.startsWith("LIST")) && status.startsWith("OK ")) {
+                        for (int i = Integer.parseInt(status.split(" ")[1]); i > 0; i--) {
+                            System.out.println("    " + in.readLine().replace('\t', '|'));
+                        }
+                    }
+                }
+                System.out.println("Connection closed by server: " + (in.readLine() == null));
+            }
+        } catch (java.io.IOException e) {
+            System.out.println("Server test failed: " + e.getMessage());
+        }
+        
+        // Test 20: Paged and streamed search
+        System.out.println("\n20. Testing paged and streamed search:");
+        System.out.println("-".repeat(40));
+        ContactManager paged = new ContactManager();
+        paged.addAll(new ContactGenerator().contacts(0, 50), ContactManager.BatchMode.BEST_EFFORT);
+        paged.updateContactById(3, new Contact("Ann Anderson", "5550003333", "ann.anderson@mail.com"));
+        for (String keyword : new String[] {"son", "an"}) {
+            String token = null;
+            int pageNumber = 0;
+            do {
+                ContactPage page = paged.searchPage(keyword, token, 4);
+                StringBuilder ids = new StringBuilder();
+                for (Contact contact : page) {
+                    ids.append(' ').append(contact.getId());
+                }
+                System.out.println("'" + keyword + "' page " + ++pageNumber + ":" + ids
+                        + (page.hasMore() ? " (more)" : " (last)"));
+                token = page.getNextToken();
+            } while (token != null && pageNumber < 3);
+        }
+        System.out.println("First 3 streamed for 'gmail': " + paged.streamSearch("gmail").limit(3)
+                .map(Contact::getName).collect(java.util.stream.Collectors.toList()));
+        try {
+            paged.searchPage("gmail", paged.searchPage("son", null, 1).getNextToken(), 4);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Token reused for another query: " + e.getMessage());
+        }
+        
+        // Test 21: Query result cache
+        System.out.println("\n21. Testing the query result cache:");
+        System.out.println("-".repeat(40));
+        ContactManager cachedSearch = new ContactManager();
+        cachedSearch.addAll(new ContactGenerator().contacts(0, 50), ContactManager.BatchMode.BEST_EFFORT);
+        QueryCache queryCache = cachedSearch.getQueryCache();
+        for (int round = 0; round < 3; round++) {
+            cachedSearch.searchContacts("yahoo");
+            cachedSearch.searchContacts("Patel");
+        }
+        System.out.println("After 3 rounds: hits=" + queryCache.getHits() + ", misses=" + queryCache.getMisses()
+                + ", entries=" + queryCache.size());
+        cachedSearch.addContact(new Contact("Raj Patel", "5550009999", "raj.patel@work.com"));
+        System.out.println("Added a Patel: entries=" + queryCache.size()
+                + ", invalidations=" + queryCache.getInvalidations());
+        System.out.println("'Patel' now finds " + cachedSearch.searchContacts("Patel").size()
+                + ", 'yahoo' (still cached) finds " + cachedSearch.searchContacts("yahoo").size());
+        System.out.println(queryCache);
         
         System.out.println("\n" + "=".repeat(60));
         System.out.println("           ALL TESTS COMPLETED!");
         System.out.println("=".repeat(60));
     }
+    
+    // Import sink that keeps every row and records it as text
+    private static boolean[] keepAll(java.util.List<Contact> batch, java.util.List<String> rows) {
+        for (Contact contact : batch) {
+            rows.add(contact.getName() + "|" + contact.getPhone() + "|" + contact.getEmail());
+        }
+        boolean[] stored = new boolean[batch.size()];
+        java.util.Arrays.fill(stored, true);
+        return stored;
+    }
 }
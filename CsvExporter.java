@@ -0,0 +1,169 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * CsvExporter class that writes contacts as RFC-4180 CSV
+ * Rows are encoded straight to UTF-8 bytes (no String.format) in parallel
+ * partitions, then written with one gathered FileChannel write per batch
+ */
+public class CsvExporter {
+    private static final byte[] HEADER = "Name,Phone,Email\n".getBytes(StandardCharsets.US_ASCII);
+    private static final int PARTITION_SIZE = 16384;  // contacts per encoding task
+    private static final int GZIP_BUFFER_SIZE = 1 << 16;
+    
+    private CsvExporter() {
+    }
+    
+    // Export to a file, optionally gzip-compressed
+    public static void exportToFile(List<Contact> contacts, String filename, boolean gzip) throws IOException {
+        if (gzip) {
+            try (OutputStream out = new GZIPOutputStream(new FileOutputStream(filename), GZIP_BUFFER_SIZE)) {
+                exportToStream(contacts, out);
+            }
+            return;
+        }
+        
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            writeFully(channel, new ByteBuffer[] {ByteBuffer.wrap(HEADER)});
+            forEachBatch(contacts, buffers -> writeFully(channel, buffers));
+        }
+    }
+    
+    // Export to any stream (sockets, pipes, compressors); the stream is not closed
+    public static void exportToStream(List<Contact> contacts, OutputStream out) throws IOException {
+        out.write(HEADER);
+        forEachBatch(contacts, buffers -> {
+            for (ByteBuffer buffer : buffers) {
+                out.write(buffer.array(), buffer.position(), buffer.remaining());
+            }
+        });
+        out.flush();
+    }
+    
+    // Encode one row; used by callers that stream contacts one at a time
+    public static byte[] encodeRow(Contact contact) {
+        RowBuffer row = new RowBuffer(64);
+        row.appendContact(contact);
+        return Arrays.copyOf(row.bytes, row.length);
+    }
+    
+    private interface BatchWriter {
+        void write(ByteBuffer[] buffers) throws IOException;
+    }
+    
+    // Encode partitions in parallel, a bounded number at a time, and pass
+    // each batch of encoded buffers to the writer in list order
+    private static void forEachBatch(List<Contact> contacts, BatchWriter writer) throws IOException {
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int batchPartitions = Math.max(2, pool.getParallelism() * 2);
+        int total = contacts.size();
+        
+        for (int batchStart = 0; batchStart < total; batchStart += batchPartitions * PARTITION_SIZE) {
+            ArrayList<ForkJoinTask<ByteBuffer>> tasks = new ArrayList<>();
+            for (int p = 0; p < batchPartitions; p++) {
+                int from = batchStart + p * PARTITION_SIZE;
+                if (from >= total) {
+                    break;
+                }
+                int to = Math.min(total, from + PARTITION_SIZE);
+                tasks.add(pool.submit(() -> encodePartition(contacts, from, to)));
+            }
+            
+            ByteBuffer[] buffers = new ByteBuffer[tasks.size()];
+            for (int i = 0; i < buffers.length; i++) {
+                buffers[i] = tasks.get(i).join();
+            }
+            writer.write(buffers);
+        }
+    }
+    
+    private static ByteBuffer encodePartition(List<Contact> contacts, int from, int to) {
+        RowBuffer rows = new RowBuffer((to - from) * 64);
+        for (int i = from; i < to; i++) {
+            rows.appendContact(contacts.get(i));
+        }
+        return ByteBuffer.wrap(rows.bytes, 0, rows.length);
+    }
+    
+    private static void writeFully(FileChannel channel, ByteBuffer[] buffers) throws IOException {
+        long remaining = 0;
+        for (ByteBuffer buffer : buffers) {
+            remaining += buffer.remaining();
+        }
+        while (remaining > 0) {
+            remaining -= channel.write(buffers);
+        }
+    }
+    
+    // Growable byte buffer with a hand-written UTF-8 encoder
+    private static class RowBuffer {
+        byte[] bytes;
+        int length;
+        
+        RowBuffer(int capacity) {
+            bytes = new byte[Math.max(capacity, 64)];
+        }
+        
+        void appendContact(Contact contact) {
+            appendField(contact.getName());
+            append((byte) ',');
+            appendField(contact.getPhone());
+            append((byte) ',');
+            appendField(contact.getEmail());
+            append((byte) '\n');
+        }
+        
+        // Quoted field with embedded quotes doubled; no char needs more than
+        // 3 bytes (a doubled quote takes 2), so one capacity check is enough
+        void appendField(String value) {
+            ensureCapacity(value.length() * 3 + 2);
+            bytes[length++] = '"';
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c < 0x80) {
+                    if (c == '"') {
+                        bytes[length++] = '"';
+                    }
+                    bytes[length++] = (byte) c;
+                } else if (c < 0x800) {
+                    bytes[length++] = (byte) (0xC0 | (c >> 6));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                } else if (Character.isHighSurrogate(c) && i + 1 < value.length()
+                        && Character.isLowSurrogate(value.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, value.charAt(++i));
+                    bytes[length++] = (byte) (0xF0 | (cp >> 18));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 12) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | ((cp >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (cp & 0x3F));
+                } else if (Character.isSurrogate(c)) {
+                    bytes[length++] = '?'; // Unpaired surrogate, same as String.getBytes
+                } else {
+                    bytes[length++] = (byte) (0xE0 | (c >> 12));
+                    bytes[length++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+                    bytes[length++] = (byte) (0x80 | (c & 0x3F));
+                }
+            }
+            bytes[length++] = '"';
+        }
+        
+        void append(byte b) {
+            ensureCapacity(1);
+            bytes[length++] = b;
+        }
+        
+        void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,275 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * CsvImporter class that streams a CSV file in chunks of whole records
+ * Chunks are parsed in parallel on a fork-join pool and merged in file order.
+ * The reading thread only cuts each chunk after its last newline; workers
+ * find the records and count the lines of their own chunk, and the merge
+ * turns their line numbers into file line numbers.
+ */
+public class CsvImporter {
+    private static final int CHUNK_SIZE = 1 << 20; // chars per chunk
+    
+    // Parsed rows of one chunk, waiting to be merged into the store
+    static class ParsedChunk {
+        final ArrayList<Contact> contacts = new ArrayList<>();
+        final ArrayList<Integer> contactLines = new ArrayList<>();
+        final ArrayList<Integer> invalidLines = new ArrayList<>();
+        final ArrayList<Integer> malformedLines = new ArrayList<>();
+        int lines;              // newlines in the parsed records
+        int remainder = -1;     // start of an unfinished record at the end, or -1
+        boolean headerPending;  // the header still has to be skipped
+    }
+    
+    // A chunk handed to the pool, kept so it can be parsed again when the
+    // chunk before it ends inside a quoted field
+    private static class PendingChunk {
+        final char[] buf;
+        final int start;
+        final int end;
+        final boolean skipHeader;
+        final boolean last;
+        final ForkJoinTask<ParsedChunk> task;
+        
+        PendingChunk(ForkJoinPool pool, char[] buf, int start, int end, boolean skipHeader, boolean last) {
+            this.buf = buf;
+            this.start = start;
+            this.end = end;
+            this.skipHeader = skipHeader;
+            this.last = last;
+            this.task = pool.submit(() -> parseChunk(buf, start, end, 0, skipHeader, last));
+        }
+    }
+    
+    // Merges pending chunks in file order. A chunk cut at a newline inside a
+    // quoted field leaves an unfinished record; it is carried over, and the
+    // next chunk, parsed from the middle of that record, is parsed again
+    // behind it.
+    private static class ChunkMerger {
+        private final Function<List<Contact>, boolean[]> sink;
+        private final ImportReport report;
+        private int line = 1;
+        private char[] carry;
+        private boolean carrySkipsHeader;
+        
+        ChunkMerger(Function<List<Contact>, boolean[]> sink, ImportReport report) {
+            this.sink = sink;
+            this.report = report;
+        }
+        
+        void merge(PendingChunk pending) {
+            if (carry == null) {
+                merge(pending.task.join(), pending.buf, pending.end);
+                return;
+            }
+            pending.task.cancel(false);
+            char[] joined = Arrays.copyOf(carry, carry.length + pending.end - pending.start);
+            System.arraycopy(pending.buf, pending.start, joined, carry.length, pending.end - pending.start);
+            merge(parseChunk(joined, 0, joined.length, 0, carrySkipsHeader, pending.last), joined, joined.length);
+        }
+        
+        // Parse what is still carried over as the final record(s)
+        void finish() {
+            if (carry != null) {
+                char[] rest = carry;
+                merge(parseChunk(rest, 0, rest.length, 0, carrySkipsHeader, true), rest, rest.length);
+            }
+        }
+        
+        private void merge(ParsedChunk chunk, char[] buf, int end) {
+            CsvImporter.merge(chunk, line, sink, report);
+            line += chunk.lines;
+            carry = chunk.remainder < 0 ? null : Arrays.copyOfRange(buf, chunk.remainder, end);
+            carrySkipsHeader = chunk.headerPending;
+        }
+    }
+    
+    private CsvImporter() {
+    }
+    
+    // Import a CSV file; the sink stores a batch and reports which rows were kept.
+    // Chunks are only merged while reading succeeds; after a failure the
+    // chunks still being parsed are dropped.
+    public static ImportReport importFile(String filename, Function<List<Contact>, boolean[]> sink)
+            throws IOException {
+        long start = System.nanoTime();
+        ImportReport report = new ImportReport(filename);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int maxPending = Math.max(2, pool.getParallelism() * 2);
+        ArrayDeque<PendingChunk> pending = new ArrayDeque<>();
+        ChunkMerger merger = new ChunkMerger(sink, report);
+        
+        try (Reader reader = new InputStreamReader(new FileInputStream(filename), StandardCharsets.UTF_8)) {
+            char[] buf = new char[CHUNK_SIZE];
+            int len = 0;
+            boolean first = true;
+            boolean eof = false;
+            
+            while (!eof) {
+                int read = reader.read(buf, len, buf.length - len);
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    len += read;
+                    if (len < buf.length) {
+                        continue; // Keep filling the chunk
+                    }
+                }
+                
+                if (eof && len == 0) {
+                    break;
+                }
+                
+                int offset = 0;
+                if (first && len > 0 && buf[0] == '\uFEFF') {
+                    offset = 1; // Byte order mark
+                }
+                
+                // Cut after the last newline; the remainder moves to the next chunk
+                int cut = eof ? len : lastNewline(buf, offset, len) + 1;
+                if (cut <= offset) {
+                    buf = Arrays.copyOf(buf, buf.length * 2); // Line longer than a chunk
+                    continue;
+                }
+                
+                pending.add(new PendingChunk(pool, buf, offset, cut, first, eof));
+                first = false;
+                char[] next = new char[Math.max(CHUNK_SIZE, len - cut)];
+                System.arraycopy(buf, cut, next, 0, len - cut);
+                buf = next;
+                len -= cut;
+                
+                while (pending.size() >= maxPending) {
+                    merger.merge(pending.poll());
+                }
+            }
+            
+            while (!pending.isEmpty()) {
+                merger.merge(pending.poll());
+            }
+            merger.finish();
+        } catch (Throwable failure) {
+            for (PendingChunk chunk : pending) {
+                discard(chunk.task, failure);
+            }
+            throw failure;
+        }
+        
+        report.setElapsedMillis((System.nanoTime() - start) / 1_000_000);
+        return report;
+    }
+    
+    // Drop a chunk that will not be merged after a failure; an error of its
+    // own is attached to that failure instead of hiding it
+    static void discard(ForkJoinTask<ParsedChunk> task, Throwable failure) {
+        task.cancel(false);
+        try {
+            task.join();
+        } catch (CancellationException e) {
+            // Never ran
+        } catch (RuntimeException | Error e) {
+            failure.addSuppressed(e);
+        }
+    }
+    
+    // Parse all records in [start, end) into contacts, numbering lines from
+    // line. Unless this is the last chunk, a record still open at the end is
+    // left unparsed and marked as the chunk's remainder.
+    static ParsedChunk parseChunk(char[] buf, int start, int end, int line, boolean skipHeader, boolean last) {
+        ParsedChunk chunk = new ParsedChunk();
+        String[] fields = new String[3];
+        int pos = start;
+        int firstLine = line;
+        
+        while (pos < end) {
+            int recordEnd = CsvParser.findRecordEnd(buf, pos, end);
+            if (recordEnd < 0) {
+                if (!last) {
+                    chunk.remainder = pos; // Cut inside a quoted field
+                    chunk.headerPending = skipHeader;
+                    break;
+                }
+                recordEnd = end; // Last record without trailing newline
+            }
+            int recordLine = line;
+            line += countLines(buf, pos, Math.min(recordEnd + 1, end));
+            
+            if (skipHeader) {
+                skipHeader = false;
+            } else if (!isBlankLine(buf, pos, recordEnd)) {
+                int count = CsvParser.parseRecord(buf, pos, recordEnd, fields);
+                if (count != fields.length) {
+                    chunk.malformedLines.add(recordLine);
+                } else {
+                    Contact contact = new Contact(fields[0], fields[1], fields[2]);
+                    if (contact.isValid()) {
+                        chunk.contacts.add(contact);
+                        chunk.contactLines.add(recordLine);
+                    } else {
+                        chunk.invalidLines.add(recordLine);
+                    }
+                }
+            }
+            pos = recordEnd + 1;
+        }
+        chunk.lines = line - firstLine;
+        return chunk;
+    }
+    
+    // Merge one parsed chunk into the store through the batched insert path;
+    // lineOffset is added to the chunk's line numbers
+    static void merge(ParsedChunk chunk, int lineOffset, Function<List<Contact>, boolean[]> sink,
+            ImportReport report) {
+        // Rejected rows are reported in line order within the chunk
+        for (int line : chunk.malformedLines) {
+            report.recordMalformed(lineOffset + line);
+        }
+        for (int line : chunk.invalidLines) {
+            report.recordInvalid(lineOffset + line);
+        }
+        
+        boolean[] stored = sink.apply(chunk.contacts);
+        for (int i = 0; i < stored.length; i++) {
+            if (stored[i]) {
+                report.recordAccepted();
+            } else {
+                report.recordDuplicate(lineOffset + chunk.contactLines.get(i));
+            }
+        }
+    }
+    
+    // Position of the last newline, or -1
+    private static int lastNewline(char[] buf, int start, int end) {
+        for (int i = end - 1; i >= start; i--) {
+            if (buf[i] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    private static int countLines(char[] buf, int start, int end) {
+        int lines = 0;
+        for (int i = start; i < end; i++) {
+            if (buf[i] == '\n') {
+                lines++;
+            }
+        }
+        return lines;
+    }
+    
+    private static boolean isBlankLine(char[] buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            if (!Character.isWhitespace(buf[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,228 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Minimal RFC-4180 CSV parser working directly on character or byte buffers
+ * No regular expressions; one String allocation per stored field
+ */
+public final class CsvParser {
+    // Returned by parseRecord when a record cannot be parsed
+    public static final int MALFORMED = -1;
+    
+    // Scanner states while looking for the end of a record: at the start of
+    // a field (only blanks so far), inside an unquoted field, inside quotes,
+    // and right after a closing quote (where another quote is an escaped "")
+    static final int FIELD_START = 0;
+    static final int UNQUOTED = 1;
+    static final int QUOTED = 2;
+    static final int CLOSED = 3;
+    
+    private CsvParser() {
+    }
+    
+    // Find the newline ending the record that starts at pos, or -1 if the
+    // record is not complete within [pos, limit). Quoted newlines are skipped.
+    public static int findRecordEnd(char[] buf, int pos, int limit) {
+        int state = FIELD_START;
+        for (int i = pos; i < limit; i++) {
+            char c = buf[i];
+            if (c == '\n' && state != QUOTED) {
+                return i;
+            }
+            state = scan(state, c);
+        }
+        return -1;
+    }
+    
+    // Scanner state after one more character of a record. A quote only opens
+    // a quoted field at the start of a field, so a stray quote inside an
+    // unquoted value (O"Brien) cannot swallow the following records.
+    static int scan(int state, int c) {
+        switch (state) {
+            case QUOTED:
+                return c == '"' ? CLOSED : QUOTED;
+            case FIELD_START:
+                if (c == '"') {
+                    return QUOTED;
+                }
+                return c == ',' || isBlank((char) c) ? FIELD_START : UNQUOTED;
+            case CLOSED:
+                if (c == '"') {
+                    return QUOTED; // Doubled quote
+                }
+                return c == ',' ? FIELD_START : UNQUOTED;
+            default:
+                return c == ',' ? FIELD_START : UNQUOTED;
+        }
+    }
+    
+    // Parse one record in [start, end) (without its line terminator).
+    // Stores up to fields.length values and returns the total field count,
+    // or MALFORMED for unterminated quotes or text after a closing quote.
+    public static int parseRecord(char[] buf, int start, int end, String[] fields) {
+        if (end > start && buf[end - 1] == '\r') {
+            end--;
+        }
+        
+        int count = 0;
+        int pos = start;
+        while (true) {
+            int fieldStart = pos;
+            while (pos < end && isBlank(buf[pos])) {
+                pos++;
+            }
+            
+            String value = null;
+            boolean keep = count < fields.length;
+            if (pos < end && buf[pos] == '"') {
+                int valueStart = ++pos;
+                boolean escaped = false;
+                while (true) {
+                    if (pos >= end) {
+                        return MALFORMED; // Unterminated quoted field
+                    }
+                    if (buf[pos] == '"') {
+                        if (pos + 1 < end && buf[pos + 1] == '"') {
+                            escaped = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                
+                if (keep) {
+                    value = escaped ? unescape(buf, valueStart, pos) : new String(buf, valueStart, pos - valueStart);
+                }
+                pos++; // Closing quote
+                
+                while (pos < end && isBlank(buf[pos])) {
+                    pos++;
+                }
+                if (pos < end && buf[pos] != ',') {
+                    return MALFORMED; // Text after closing quote
+                }
+            } else {
+                pos = fieldStart;
+                while (pos < end && buf[pos] != ',') {
+                    pos++; // A quote inside an unquoted field is kept as text
+                }
+                
+                if (keep) {
+                    value = new String(buf, fieldStart, pos - fieldStart);
+                }
+            }
+            
+            if (keep) {
+                fields[count] = value;
+            }
+            count++;
+            
+            if (pos >= end) {
+                return count;
+            }
+            pos++; // Field separator
+        }
+    }
+    
+    // Byte variant of findRecordEnd for memory-mapped input (UTF-8 keeps
+    // quotes and newlines as single ASCII bytes, so no decoding is needed)
+    public static int findRecordEnd(ByteBuffer buf, int pos, int limit) {
+        int state = FIELD_START;
+        for (int i = pos; i < limit; i++) {
+            byte b = buf.get(i);
+            if (b == '\n' && state != QUOTED) {
+                return i;
+            }
+            state = scan(state, b);
+        }
+        return -1;
+    }
+    
+    // Byte variant of parseRecord that locates fields without decoding them.
+    // For field k, spans[3k] and spans[3k + 1] hold the content bounds and
+    // spans[3k + 2] is 1 when the content contains doubled quotes.
+    public static int parseRecord(ByteBuffer buf, int start, int end, int[] spans) {
+        if (end > start && buf.get(end - 1) == '\r') {
+            end--;
+        }
+        
+        int count = 0;
+        int pos = start;
+        while (true) {
+            int fieldStart = pos;
+            while (pos < end && isBlank(buf.get(pos))) {
+                pos++;
+            }
+            
+            int valueStart;
+            int valueEnd;
+            boolean escaped = false;
+            if (pos < end && buf.get(pos) == '"') {
+                valueStart = ++pos;
+                while (true) {
+                    if (pos >= end) {
+                        return MALFORMED; // Unterminated quoted field
+                    }
+                    if (buf.get(pos) == '"') {
+                        if (pos + 1 < end && buf.get(pos + 1) == '"') {
+                            escaped = true;
+                            pos += 2;
+                            continue;
+                        }
+                        break;
+                    }
+                    pos++;
+                }
+                valueEnd = pos++;
+                
+                while (pos < end && isBlank(buf.get(pos))) {
+                    pos++;
+                }
+                if (pos < end && buf.get(pos) != ',') {
+                    return MALFORMED; // Text after closing quote
+                }
+            } else {
+                pos = fieldStart;
+                while (pos < end && buf.get(pos) != ',') {
+                    pos++; // A quote inside an unquoted field is kept as text
+                }
+                valueStart = fieldStart;
+                valueEnd = pos;
+            }
+            
+            if (3 * count + 2 < spans.length) {
+                spans[3 * count] = valueStart;
+                spans[3 * count + 1] = valueEnd;
+                spans[3 * count + 2] = escaped ? 1 : 0;
+            }
+            count++;
+            
+            if (pos >= end) {
+                return count;
+            }
+            pos++; // Field separator
+        }
+    }
+    
+    // Collapse doubled quotes inside a quoted field
+    private static String unescape(char[] buf, int start, int end) {
+        char[] out = new char[end - start];
+        int length = 0;
+        for (int i = start; i < end; i++) {
+            out[length++] = buf[i];
+            if (buf[i] == '"') {
+                i++; // Skip the second quote of the pair
+            }
+        }
+        return new String(out, 0, length);
+    }
+    
+    private static boolean isBlank(char c) {
+        return c == ' ' || c == '\t';
+    }
+    
+    private static boolean isBlank(byte b) {
+        return b == ' ' || b == '\t';
+    }
+}
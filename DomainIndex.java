@@ -0,0 +1,99 @@
+import java.util.*;
+
+/**
+ * DomainIndex class grouping stored contacts by email domain
+ * Domains (lower-cased text after the last '@') are dictionary encoded:
+ * each one is held once, and its reference count is the number of contacts
+ * at that domain. Every code owns the set of its contacts, so "all contacts
+ * at company.com" is a lookup instead of a scan. The codes are also kept
+ * ranked by contact count (ties by name), so the most common domains are
+ * read off the front of the ranking instead of scanning every domain.
+ */
+public class DomainIndex {
+    private final StringDictionary domains = new StringDictionary();
+    private final ArrayList<Set<Contact>> members = new ArrayList<>();
+    
+    // Codes in use, most contacts first; a code is taken out before its
+    // count changes and put back afterwards, so the order stays consistent
+    private final TreeSet<Integer> ranking = new TreeSet<>((a, b) -> domains.count(a) != domains.count(b)
+            ? Integer.compare(domains.count(b), domains.count(a))
+            : domains.get(a).compareTo(domains.get(b)));
+    
+    // Index a stored contact; emails without '@' have no domain
+    public void add(Contact contact) {
+        String domain = domainOf(contact.getEmail());
+        if (domain == null) {
+            return;
+        }
+        int previous = domains.codeOf(domain);
+        if (previous >= 0) {
+            ranking.remove(previous);
+        }
+        int code = domains.acquire(domain);
+        ranking.add(code);
+        while (members.size() <= code) {
+            members.add(null);
+        }
+        if (members.get(code) == null) {
+            members.set(code, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        members.get(code).add(contact);
+    }
+    
+    // Remove a stored contact
+    public void remove(Contact contact) {
+        String domain = domainOf(contact.getEmail());
+        int code = domain != null ? domains.codeOf(domain) : -1;
+        if (code < 0 || !members.get(code).remove(contact)) {
+            return;
+        }
+        ranking.remove(code);
+        domains.release(code);
+        if (domains.count(code) == 0) {
+            members.set(code, null);
+        } else {
+            ranking.add(code);
+        }
+    }
+    
+    // Contacts at a domain ("company.com" or "@company.com"), in ID order
+    public ArrayList<Contact> find(String domain) {
+        int code = domains.codeOf(normalize(domain));
+        ArrayList<Contact> results = code >= 0 ? new ArrayList<>(members.get(code)) : new ArrayList<>();
+        results.sort(Comparator.comparingLong(Contact::getId));
+        return results;
+    }
+    
+    // Number of contacts at a domain
+    public int count(String domain) {
+        return domains.count(domains.codeOf(normalize(domain)));
+    }
+    
+    // Up to limit domains with their contact counts, most contacts first;
+    // O(limit), read from the front of the ranking
+    public LinkedHashMap<String, Integer> top(int limit) {
+        LinkedHashMap<String, Integer> counts = new LinkedHashMap<>();
+        for (int code : ranking) {
+            if (counts.size() >= limit) {
+                break;
+            }
+            counts.put(domains.get(code), domains.count(code));
+        }
+        return counts;
+    }
+    
+    // Number of distinct domains
+    public int size() {
+        return domains.size();
+    }
+    
+    static String domainOf(String email) {
+        int at = email.lastIndexOf('@');
+        return at >= 0 ? email.substring(at + 1).toLowerCase() : null;
+    }
+    
+    private static String normalize(String domain) {
+        String trimmed = domain.trim().toLowerCase();
+        return trimmed.startsWith("@") ? trimmed.substring(1) : trimmed;
+    }
+}
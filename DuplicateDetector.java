@@ -0,0 +1,372 @@
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * DuplicateDetector class finding near-duplicate contacts
+ * Contacts are only compared with others that share a blocking key: the
+ * last 7 digits of the phone, the email local-part without dots, dashes,
+ * underscores and "+tags", or a phonetic (Soundex) key of the first and
+ * last name. That keeps the work proportional to the number of plausible
+ * pairs instead of all n^2 pairs; blocks larger than MAX_BLOCK_SIZE (very
+ * common names) are too unspecific to help and are skipped.
+ * Candidate pairs are scored on the fork-join pool:
+ *   score = 0.35 * name similarity (Jaro-Winkler)
+ *         + 0.65 * contact evidence (same phone or email; one-digit phone
+ *           typos and matching email local-parts count partially)
+ * Pairs at or above the threshold are joined into clusters (union-find),
+ * so A~B and B~C put A, B and C into one merge candidate group.
+ */
+public class DuplicateDetector {
+    public static final double DEFAULT_THRESHOLD = 0.9;
+    public static final int MAX_BLOCK_SIZE = 500;
+    
+    private static final int PHONE_SUFFIX_DIGITS = 7;
+    private static final long PAIRS_PER_TASK = 1 << 16;
+    
+    private final double threshold;
+    
+    public DuplicateDetector() {
+        this(DEFAULT_THRESHOLD);
+    }
+    
+    public DuplicateDetector(double threshold) {
+        this.threshold = threshold;
+    }
+    
+    // Groups of two or more likely duplicates, each in input order; groups
+    // are ordered by their first member
+    public ArrayList<ArrayList<Contact>> findClusters(Collection<Contact> contacts) {
+        Contact[] items = contacts.toArray(new Contact[0]);
+        int count = items.length;
+        
+        // Blocking keys and comparison forms, computed once per contact
+        String[][] keys = new String[3][count];
+        String[] names = new String[count];
+        String[] phones = new String[count];
+        String[] emails = new String[count];
+        String[] locals = new String[count];
+        IntStream.range(0, count).parallel().forEach(i -> {
+            Contact contact = items[i];
+            names[i] = normalizeName(contact.getName());
+            phones[i] = contact.getNormalizedPhone();
+            emails[i] = contact.getEmailKey().getValue();
+            locals[i] = localPart(emails[i]);
+            keys[0][i] = phoneKey(phones[i]);
+            keys[1][i] = locals[i].isEmpty() ? null : locals[i];
+            keys[2][i] = nameKey(names[i]);
+        });
+        
+        // Cut the blocks into tasks of similar size and score them in parallel
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ArrayList<ForkJoinTask<long[]>> tasks = new ArrayList<>();
+        ArrayList<int[]> batch = new ArrayList<>();
+        long batchPairs = 0;
+        for (int type = 0; type < keys.length; type++) {
+            for (int[] block : blocks(keys[type])) {
+                batch.add(block);
+                batchPairs += (long) block.length * (block.length - 1) / 2;
+                if (batchPairs >= PAIRS_PER_TASK) {
+                    tasks.add(submit(pool, batch, type, keys, names, phones, emails, locals));
+                    batch = new ArrayList<>();
+                    batchPairs = 0;
+                }
+            }
+            if (!batch.isEmpty()) {
+                tasks.add(submit(pool, batch, type, keys, names, phones, emails, locals));
+                batch = new ArrayList<>();
+                batchPairs = 0;
+            }
+        }
+        
+        int[] parent = new int[count];
+        for (int i = 0; i < count; i++) {
+            parent[i] = i;
+        }
+        for (ForkJoinTask<long[]> task : tasks) {
+            for (long pair : task.join()) {
+                union(parent, (int) (pair >>> 32), (int) pair);
+            }
+        }
+        
+        // Roots are the earliest members, so clusters come out in input order
+        int[] sizes = new int[count];
+        for (int i = 0; i < count; i++) {
+            sizes[find(parent, i)]++;
+        }
+        LinkedHashMap<Integer, ArrayList<Contact>> clusters = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            int root = find(parent, i);
+            if (sizes[root] > 1) {
+                clusters.computeIfAbsent(root, r -> new ArrayList<>()).add(items[i]);
+            }
+        }
+        return new ArrayList<>(clusters.values());
+    }
+    
+    // Similarity of two contacts between 0 and 1 (the score used above)
+    public static double score(Contact a, Contact b) {
+        String emailA = a.getEmailKey().getValue();
+        String emailB = b.getEmailKey().getValue();
+        return score(normalizeName(a.getName()), normalizeName(b.getName()), a.getNormalizedPhone(),
+                b.getNormalizedPhone(), emailA, emailB, localPart(emailA), localPart(emailB));
+    }
+    
+    private static double score(String nameA, String nameB, String phoneA, String phoneB,
+            String emailA, String emailB, String localA, String localB) {
+        double phone = phoneSimilarity(phoneA, phoneB);
+        double email = emailA.equals(emailB) ? 1 : !localA.isEmpty() && localA.equals(localB) ? 0.9 : 0;
+        double evidence = Math.min(1, Math.max(phone, email) + 0.5 * Math.min(phone, email));
+        return 0.35 * jaroWinkler(nameA, nameB) + 0.65 * evidence;
+    }
+    
+    private ForkJoinTask<long[]> submit(ForkJoinPool pool, List<int[]> blocks, int type, String[][] keys,
+            String[] names, String[] phones, String[] emails, String[] locals) {
+        return pool.submit(() -> {
+            long[] matches = new long[16];
+            int matchCount = 0;
+            for (int[] block : blocks) {
+                for (int x = 0; x < block.length; x++) {
+                    for (int y = x + 1; y < block.length; y++) {
+                        int i = block[x];
+                        int j = block[y];
+                        if (sharesEarlierKey(keys, type, i, j)) {
+                            continue; // Already compared in that block
+                        }
+                        if (score(names[i], names[j], phones[i], phones[j], emails[i], emails[j],
+                                locals[i], locals[j]) >= threshold) {
+                            if (matchCount == matches.length) {
+                                matches = Arrays.copyOf(matches, matchCount * 2);
+                            }
+                            matches[matchCount++] = (long) i << 32 | j;
+                        }
+                    }
+                }
+            }
+            return Arrays.copyOf(matches, matchCount);
+        });
+    }
+    
+    // Index lists of all keys shared by 2..MAX_BLOCK_SIZE contacts. Keys of
+    // larger blocks are cleared, so a later key type still compares pairs
+    // that only share such a key (see sharesEarlierKey).
+    private static Collection<int[]> blocks(String[] keys) {
+        HashMap<String, int[]> blocks = new HashMap<>();
+        HashMap<String, Integer> sizes = new HashMap<>();
+        for (String key : keys) {
+            if (key != null) {
+                sizes.merge(key, 1, Integer::sum);
+            }
+        }
+        for (int i = 0; i < keys.length; i++) {
+            Integer size = keys[i] != null ? sizes.get(keys[i]) : null;
+            if (size != null && size > MAX_BLOCK_SIZE) {
+                keys[i] = null;
+            }
+            if (size == null || size < 2 || size > MAX_BLOCK_SIZE) {
+                continue;
+            }
+            int[] block = blocks.computeIfAbsent(keys[i], k -> new int[size + 1]);
+            block[++block[0]] = i; // Slot 0 counts the members added so far
+        }
+        ArrayList<int[]> result = new ArrayList<>(blocks.size());
+        for (int[] block : blocks.values()) {
+            result.add(Arrays.copyOfRange(block, 1, block.length));
+        }
+        return result;
+    }
+    
+    // Whether i and j were already compared in the block of an earlier key
+    // type (keys of skipped blocks have been cleared by then)
+    private static boolean sharesEarlierKey(String[][] keys, int type, int i, int j) {
+        for (int earlier = 0; earlier < type; earlier++) {
+            if (keys[earlier][i] != null && keys[earlier][i].equals(keys[earlier][j])) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // 1 for the same number (or one ending in the other, e.g. with and without
+    // country code), 0.8 for a single-digit typo, else 0
+    static double phoneSimilarity(String a, String b) {
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        if (a.equals(b)) {
+            return 1;
+        }
+        String shorter = a.length() <= b.length() ? a : b;
+        String longer = shorter == a ? b : a;
+        if (shorter.length() >= PHONE_SUFFIX_DIGITS + 3 && longer.endsWith(shorter)) {
+            return 1;
+        }
+        return shorter.length() >= PHONE_SUFFIX_DIGITS && withinOneEdit(a, b) ? 0.8 : 0;
+    }
+    
+    // Jaro-Winkler similarity (1 = identical, 0 = nothing in common)
+    static double jaroWinkler(String a, String b) {
+        if (a.equals(b)) {
+            return 1;
+        }
+        if (a.isEmpty() || b.isEmpty()) {
+            return 0;
+        }
+        int window = Math.max(0, Math.max(a.length(), b.length()) / 2 - 1);
+        boolean[] matchedA = new boolean[a.length()];
+        boolean[] matchedB = new boolean[b.length()];
+        int matches = 0;
+        for (int i = 0; i < a.length(); i++) {
+            int from = Math.max(0, i - window);
+            int to = Math.min(b.length() - 1, i + window);
+            for (int j = from; j <= to; j++) {
+                if (!matchedB[j] && a.charAt(i) == b.charAt(j)) {
+                    matchedA[i] = true;
+                    matchedB[j] = true;
+                    matches++;
+                    break;
+                }
+            }
+        }
+        if (matches == 0) {
+            return 0;
+        }
+        
+        int transpositions = 0;
+        for (int i = 0, j = 0; i < a.length(); i++) {
+            if (matchedA[i]) {
+                while (!matchedB[j]) {
+                    j++;
+                }
+                if (a.charAt(i) != b.charAt(j)) {
+                    transpositions++;
+                }
+                j++;
+            }
+        }
+        double m = matches;
+        double jaro = (m / a.length() + m / b.length() + (m - transpositions / 2.0) / m) / 3;
+        
+        int prefix = 0;
+        while (prefix < 4 && prefix < a.length() && prefix < b.length() && a.charAt(prefix) == b.charAt(prefix)) {
+            prefix++;
+        }
+        return jaro + prefix * 0.1 * (1 - jaro);
+    }
+    
+    // Soundex code of a word (letter plus three digits), or null without letters
+    static String soundex(String word) {
+        char[] code = {0, '0', '0', '0'};
+        int length = 0;
+        char last = 0;
+        for (int i = 0; i < word.length() && length < 4; i++) {
+            char c = Character.toUpperCase(word.charAt(i));
+            if (c < 'A' || c > 'Z') {
+                continue;
+            }
+            char digit = "01230120022455012623010202".charAt(c - 'A');
+            if (length == 0) {
+                code[length++] = c;
+            } else if (digit != '0' && digit != last) {
+                code[length++] = digit;
+            }
+            if (c != 'H' && c != 'W') {
+                last = digit;
+            }
+        }
+        return length == 0 ? null : new String(code);
+    }
+    
+    private static String phoneKey(String phone) {
+        if (phone.length() < PHONE_SUFFIX_DIGITS) {
+            return null;
+        }
+        for (int i = 0; i < phone.length(); i++) {
+            if (phone.charAt(i) < '0' || phone.charAt(i) > '9') {
+                return null;
+            }
+        }
+        return phone.substring(phone.length() - PHONE_SUFFIX_DIGITS);
+    }
+    
+    // Soundex of the first and last name word ("Jon Doe" and "John Doe" agree)
+    private static String nameKey(String name) {
+        String[] words = name.split(" ");
+        String first = soundex(words[0]);
+        String last = words.length > 1 ? soundex(words[words.length - 1]) : null;
+        if (first == null) {
+            return last;
+        }
+        return last == null ? first : first + last;
+    }
+    
+    // Lower-cased name with single spaces
+    private static String normalizeName(String name) {
+        return name.trim().toLowerCase().replaceAll("\\s+", " ");
+    }
+    
+    // Local part without "+tag" and without '.', '-' and '_'
+    private static String localPart(String email) {
+        int at = email.lastIndexOf('@');
+        String local = at >= 0 ? email.substring(0, at) : email;
+        int tag = local.indexOf('+');
+        if (tag >= 0) {
+            local = local.substring(0, tag);
+        }
+        StringBuilder letters = new StringBuilder(local.length());
+        for (int i = 0; i < local.length(); i++) {
+            char c = local.charAt(i);
+            if (c != '.' && c != '-' && c != '_') {
+                letters.append(c);
+            }
+        }
+        return letters.toString();
+    }
+    
+    // Equal but for one inserted, deleted or replaced character
+    private static boolean withinOneEdit(String a, String b) {
+        if (Math.abs(a.length() - b.length()) > 1) {
+            return false;
+        }
+        int i = 0;
+        int j = 0;
+        boolean edited = false;
+        while (i < a.length() && j < b.length()) {
+            if (a.charAt(i) == b.charAt(j)) {
+                i++;
+                j++;
+                continue;
+            }
+            if (edited) {
+                return false;
+            }
+            edited = true;
+            if (a.length() > b.length()) {
+                i++;
+            } else if (a.length() < b.length()) {
+                j++;
+            } else {
+                i++;
+                j++;
+            }
+        }
+        return true;
+    }
+    
+    private static int find(int[] parent, int i) {
+        while (parent[i] != i) {
+            parent[i] = parent[parent[i]];
+            i = parent[i];
+        }
+        return i;
+    }
+    
+    private static void union(int[] parent, int a, int b) {
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if (rootA != rootB) {
+            parent[Math.max(rootA, rootB)] = Math.min(rootA, rootB);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+/**
+ * EmailKey class holding the normalized form of an email address
+ * Addresses are compared ignoring case and surrounding whitespace. The hash
+ * is computed once, so keys are cheap to use in hash sets and maps.
+ */
+public final class EmailKey {
+    private final String address;
+    private final int hash;
+    
+    private EmailKey(String address) {
+        this.address = address;
+        this.hash = address.hashCode();
+    }
+    
+    // Key of an email as written by the user (see Contact.normalizeEmail)
+    public static EmailKey of(String email) {
+        return new EmailKey(Contact.normalizeEmail(email));
+    }
+    
+    // Trimmed, lower-cased address
+    public String getValue() {
+        return address;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof EmailKey)) return false;
+        EmailKey other = (EmailKey) obj;
+        return hash == other.hash && address.equals(other.address);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    @Override
+    public String toString() {
+        return address;
+    }
+}
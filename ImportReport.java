@@ -0,0 +1,105 @@
+import java.util.*;
+
+/**
+ * ImportReport class summarizing the outcome of a CSV import
+ * Counts accepted, duplicate, invalid and malformed rows with their line numbers
+ */
+public class ImportReport {
+    // Only the first line numbers of each category are kept to bound memory
+    public static final int MAX_RECORDED_LINES = 1000;
+    
+    private final String source;
+    private int accepted;
+    private int duplicates;
+    private int invalid;
+    private int malformed;
+    private final ArrayList<Integer> duplicateLines = new ArrayList<>();
+    private final ArrayList<Integer> invalidLines = new ArrayList<>();
+    private final ArrayList<Integer> malformedLines = new ArrayList<>();
+    private long elapsedMillis;
+    
+    public ImportReport(String source) {
+        this.source = source;
+    }
+    
+    // Recording methods used by the importers
+    void recordAccepted() {
+        accepted++;
+    }
+    
+    void recordDuplicate(int line) {
+        duplicates++;
+        record(duplicateLines, line);
+    }
+    
+    void recordInvalid(int line) {
+        invalid++;
+        record(invalidLines, line);
+    }
+    
+    void recordMalformed(int line) {
+        malformed++;
+        record(malformedLines, line);
+    }
+    
+    void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    private static void record(ArrayList<Integer> lines, int line) {
+        if (lines.size() < MAX_RECORDED_LINES) {
+            lines.add(line);
+        }
+    }
+    
+    // Getters
+    public String getSource() {
+        return source;
+    }
+    
+    public int getAccepted() {
+        return accepted;
+    }
+    
+    public int getDuplicates() {
+        return duplicates;
+    }
+    
+    public int getInvalid() {
+        return invalid;
+    }
+    
+    public int getMalformed() {
+        return malformed;
+    }
+    
+    public int getRejected() {
+        return duplicates + invalid + malformed;
+    }
+    
+    public int getTotalRows() {
+        return accepted + getRejected();
+    }
+    
+    public List<Integer> getDuplicateLines() {
+        return Collections.unmodifiableList(duplicateLines);
+    }
+    
+    public List<Integer> getInvalidLines() {
+        return Collections.unmodifiableList(invalidLines);
+    }
+    
+    public List<Integer> getMalformedLines() {
+        return Collections.unmodifiableList(malformedLines);
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    @Override
+    public String toString() {
+        return String.format("Import of %s: %d accepted, %d duplicate, %d invalid, %d malformed (%d ms)",
+                source, accepted, duplicates, invalid, malformed, elapsedMillis);
+    }
+}
@@ -0,0 +1,211 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+
+/**
+ * MappedCsvImporter class for very large CSV dumps
+ * Maps the file with FileChannel.map and scans the raw bytes, decoding only
+ * the fields of rows that pass validation. Files larger than one mapping are
+ * processed in consecutive windows that always start on a record boundary.
+ */
+public class MappedCsvImporter {
+    private static final long WINDOW_SIZE = 1L << 30;  // bytes per mapping (must stay below 2 GB)
+    private static final int RANGE_SIZE = 4 << 20;     // bytes per parse task
+    private static final int FIELD_COUNT = 3;
+    
+    private MappedCsvImporter() {
+    }
+    
+    // Import a CSV file; the sink stores a batch and reports which rows were kept
+    public static ImportReport importFile(String filename, Function<List<Contact>, boolean[]> sink)
+            throws IOException {
+        return importFile(filename, sink, WINDOW_SIZE);
+    }
+    
+    // Variant with an explicit window size, mainly useful to exercise windowing
+    static ImportReport importFile(String filename, Function<List<Contact>, boolean[]> sink, long windowSize)
+            throws IOException {
+        long startTime = System.nanoTime();
+        ImportReport report = new ImportReport(filename);
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        int maxPending = Math.max(2, pool.getParallelism() * 2);
+        ArrayDeque<ForkJoinTask<CsvImporter.ParsedChunk>> pending = new ArrayDeque<>();
+        
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            int line = 1;
+            boolean first = true;
+            
+            while (position < size) {
+                int length = (int) Math.min(windowSize, size - position);
+                boolean lastWindow = position + length == size;
+                MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                
+                int start = first && hasByteOrderMark(buf, length) ? 3 : 0;
+                
+                // Single pass over the window: track quotes and newlines, and
+                // hand out ranges of whole records to the pool as we go
+                int state = CsvParser.FIELD_START;
+                int rangeStart = start;
+                int rangeLine = line;
+                int lastRecordEnd = -1;
+                int linesAtLastRecordEnd = line;
+                int lines = line;
+                for (int i = start; i < length; i++) {
+                    byte b = buf.get(i);
+                    if (b != '\n') {
+                        state = CsvParser.scan(state, b);
+                    } else {
+                        lines++;
+                        if (state != CsvParser.QUOTED) {
+                            state = CsvParser.FIELD_START;
+                            lastRecordEnd = i;
+                            linesAtLastRecordEnd = lines;
+                            if (i + 1 - rangeStart >= RANGE_SIZE) {
+                                pending.add(submit(pool, buf, rangeStart, i + 1, rangeLine, first));
+                                first = false;
+                                rangeStart = i + 1;
+                                rangeLine = lines;
+                                
+                                while (pending.size() >= maxPending) {
+                                    CsvImporter.merge(pending.poll().join(), 0, sink, report);
+                                }
+                            }
+                        }
+                    }
+                }
+                
+                int windowEnd = lastWindow ? length : lastRecordEnd + 1;
+                if (windowEnd <= start) {
+                    throw new IOException("Record at line " + line + " does not fit in one mapping window");
+                }
+                if (windowEnd > rangeStart) {
+                    pending.add(submit(pool, buf, rangeStart, windowEnd, rangeLine, first));
+                    first = false;
+                }
+                
+                line = lastWindow ? lines : linesAtLastRecordEnd;
+                position += windowEnd;
+            }
+            
+            while (!pending.isEmpty()) {
+                CsvImporter.merge(pending.poll().join(), 0, sink, report);
+            }
+        } catch (Throwable failure) {
+            // Ranges still being parsed are dropped, not merged
+            for (ForkJoinTask<CsvImporter.ParsedChunk> task : pending) {
+                CsvImporter.discard(task, failure);
+            }
+            throw failure;
+        }
+        
+        report.setElapsedMillis((System.nanoTime() - startTime) / 1_000_000);
+        return report;
+    }
+    
+    private static ForkJoinTask<CsvImporter.ParsedChunk> submit(ForkJoinPool pool, ByteBuffer buf,
+            int start, int end, int line, boolean skipHeader) {
+        return pool.submit(() -> parseRange(buf, start, end, line, skipHeader));
+    }
+    
+    // Parse all records in [start, end); absolute gets keep the shared buffer thread-safe
+    static CsvImporter.ParsedChunk parseRange(ByteBuffer buf, int start, int end, int line, boolean skipHeader) {
+        CsvImporter.ParsedChunk chunk = new CsvImporter.ParsedChunk();
+        int[] spans = new int[3 * FIELD_COUNT];
+        byte[] scratch = new byte[256];
+        int pos = start;
+        
+        while (pos < end) {
+            int recordEnd = CsvParser.findRecordEnd(buf, pos, end);
+            if (recordEnd < 0) {
+                recordEnd = end; // Last record without trailing newline
+            }
+            int recordLine = line;
+            for (int i = pos; i < recordEnd; i++) {
+                if (buf.get(i) == '\n') {
+                    line++; // Newlines inside quoted fields
+                }
+            }
+            if (recordEnd < end) {
+                line++;
+            }
+            
+            if (skipHeader) {
+                skipHeader = false;
+            } else if (!isBlank(buf, pos, recordEnd)) {
+                int count = CsvParser.parseRecord(buf, pos, recordEnd, spans);
+                if (count != FIELD_COUNT) {
+                    chunk.malformedLines.add(recordLine);
+                } else if (!hasContent(buf, spans)) {
+                    chunk.invalidLines.add(recordLine); // Rejected before any decoding
+                } else {
+                    if (scratch.length < recordEnd - pos) {
+                        scratch = new byte[recordEnd - pos];
+                    }
+                    String name = decode(buf, spans, 0, scratch);
+                    String phone = decode(buf, spans, 1, scratch);
+                    String email = decode(buf, spans, 2, scratch);
+                    chunk.contacts.add(new Contact(name, phone, email));
+                    chunk.contactLines.add(recordLine);
+                }
+            }
+            pos = recordEnd + 1;
+        }
+        return chunk;
+    }
+    
+    // Same rule as Contact.isValid: every field has a non-blank character
+    private static boolean hasContent(ByteBuffer buf, int[] spans) {
+        for (int k = 0; k < FIELD_COUNT; k++) {
+            if (isBlank(buf, spans[3 * k], spans[3 * k + 1])) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    // Decode one field as UTF-8, collapsing doubled quotes
+    private static String decode(ByteBuffer buf, int[] spans, int field, byte[] scratch) {
+        int start = spans[3 * field];
+        int end = spans[3 * field + 1];
+        int length = end - start;
+        buf.get(start, scratch, 0, length);
+        
+        if (spans[3 * field + 2] != 0) {
+            int out = 0;
+            for (int i = 0; i < length; i++) {
+                scratch[out++] = scratch[i];
+                if (scratch[i] == '"') {
+                    i++; // Skip the second quote of the pair
+                }
+            }
+            length = out;
+        }
+        return new String(scratch, 0, length, StandardCharsets.UTF_8);
+    }
+    
+    // Bytes up to 0x20 are what String.trim removes; UTF-8 continuation bytes are above 0x7F
+    private static boolean isBlank(ByteBuffer buf, int start, int end) {
+        for (int i = start; i < end; i++) {
+            int b = buf.get(i) & 0xFF;
+            if (b > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean hasByteOrderMark(ByteBuffer buf, int length) {
+        return length >= 3 && (buf.get(0) & 0xFF) == 0xEF && (buf.get(1) & 0xFF) == 0xBB
+                && (buf.get(2) & 0xFF) == 0xBF;
+    }
+}
@@ -0,0 +1,81 @@
+import java.util.*;
+
+/**
+ * OperationResult class describing the outcome of an add, update or delete
+ * (or of one item of a batch)
+ * Carries the status, the contacts involved, format warnings and a
+ * human-readable message, so callers can react without parsing console
+ * output and listeners can report it however they like.
+ */
+public class OperationResult {
+    public enum Status {
+        SUCCESS, INVALID, DUPLICATE, NOT_FOUND, JOURNAL_ERROR,
+        ABORTED // Valid, but not applied because another item of an all-or-nothing batch failed
+    }
+    
+    private final VaultMetrics.Operation operation;
+    private final Status status;
+    private final Contact contact;
+    private final Contact previous;
+    private final List<String> warnings;
+    private final String message;
+    
+    private OperationResult(VaultMetrics.Operation operation, Status status, Contact contact, Contact previous,
+            List<String> warnings, String message) {
+        this.operation = operation;
+        this.status = status;
+        this.contact = contact;
+        this.previous = previous;
+        this.warnings = warnings;
+        this.message = message;
+    }
+    
+    // Successful change; previous is the replaced contact of an update
+    static OperationResult success(VaultMetrics.Operation operation, Contact contact, Contact previous,
+            List<String> warnings, String message) {
+        return new OperationResult(operation, Status.SUCCESS, contact, previous, warnings, message);
+    }
+    
+    // Rejected change; nothing was stored, logged or removed
+    static OperationResult failure(VaultMetrics.Operation operation, Status status, Contact contact,
+            List<String> warnings, String message) {
+        return new OperationResult(operation, status, contact, null, warnings, message);
+    }
+    
+    public boolean isSuccess() {
+        return status == Status.SUCCESS;
+    }
+    
+    public VaultMetrics.Operation getOperation() {
+        return operation;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    // Added or updated contact as stored, the deleted contact, or the
+    // rejected input
+    public Contact getContact() {
+        return contact;
+    }
+    
+    // Contact that an update replaced (null otherwise)
+    public Contact getPrevious() {
+        return previous;
+    }
+    
+    // Format warnings that did not prevent the change
+    public List<String> getWarnings() {
+        return warnings;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    @Override
+    public String toString() {
+        return status + ": " + message;
+    }
+}
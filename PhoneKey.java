@@ -0,0 +1,43 @@
+/**
+ * PhoneKey class holding the normalized form of a phone number
+ * Two phones that differ only in formatting ("+1 234-567-8900" and
+ * "12345678900") get equal keys. The hash is computed once, so keys are
+ * cheap to use in hash sets and maps.
+ */
+public final class PhoneKey {
+    private final String digits;
+    private final int hash;
+    
+    private PhoneKey(String digits) {
+        this.digits = digits;
+        this.hash = digits.hashCode();
+    }
+    
+    // Key of a phone as written by the user (see Contact.normalizePhone)
+    public static PhoneKey of(String phone) {
+        return new PhoneKey(Contact.normalizePhone(phone));
+    }
+    
+    // Digits of the phone, or its trimmed text if it has no digits
+    public String getValue() {
+        return digits;
+    }
+    
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof PhoneKey)) return false;
+        PhoneKey other = (PhoneKey) obj;
+        return hash == other.hash && digits.equals(other.digits);
+    }
+    
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+    
+    @Override
+    public String toString() {
+        return digits;
+    }
+}
@@ -0,0 +1,145 @@
+import java.util.*;
+
+/**
+ * PhoneTrie class indexing normalized phone numbers digit by digit
+ * One trie holds the digits in order for prefix lookups ("starts with +91"),
+ * a second one holds them reversed for caller-ID style suffix lookups
+ * ("last 7 digits"). Phone numbers are unique in the store, so every
+ * terminal node holds a single contact.
+ */
+public class PhoneTrie {
+    // Node with lazily allocated children, one per digit
+    private static class Node {
+        Node[] next;
+        Contact contact;
+        int count; // Contacts in this subtree
+    }
+    
+    private final Node prefixRoot = new Node();
+    private final Node suffixRoot = new Node();
+    
+    // Index a stored contact; phones without digits are not indexed
+    public void add(Contact contact) {
+        String digits = digitsOf(contact);
+        if (digits == null) {
+            return;
+        }
+        insert(prefixRoot, digits, false, contact);
+        insert(suffixRoot, digits, true, contact);
+    }
+    
+    // Remove a stored contact
+    public void remove(Contact contact) {
+        String digits = digitsOf(contact);
+        if (digits == null) {
+            return;
+        }
+        delete(prefixRoot, digits, false, contact);
+        delete(suffixRoot, digits, true, contact);
+    }
+    
+    // Contacts whose normalized phone starts with the digits of the prefix
+    public ArrayList<Contact> findByPrefix(String prefix, int limit) {
+        return find(prefixRoot, Contact.normalizePhone(prefix), false, limit);
+    }
+    
+    // Contacts whose normalized phone ends with the digits of the suffix
+    public ArrayList<Contact> findBySuffix(String suffix, int limit) {
+        return find(suffixRoot, Contact.normalizePhone(suffix), true, limit);
+    }
+    
+    // Number of indexed phone numbers
+    public int size() {
+        return prefixRoot.count;
+    }
+    
+    private static ArrayList<Contact> find(Node root, String digits, boolean reversed, int limit) {
+        ArrayList<Contact> results = new ArrayList<>();
+        if (limit <= 0 || !isDigits(digits)) {
+            return results;
+        }
+        
+        Node node = root;
+        for (int i = 0; i < digits.length() && node != null; i++) {
+            int digit = digitAt(digits, i, reversed);
+            node = node.next != null ? node.next[digit] : null;
+        }
+        if (node != null) {
+            collect(node, limit, results);
+        }
+        return results;
+    }
+    
+    // Depth-first walk in digit order, stopping once the limit is reached
+    private static void collect(Node node, int limit, ArrayList<Contact> results) {
+        if (node.contact != null) {
+            results.add(node.contact);
+        }
+        if (node.next == null) {
+            return;
+        }
+        for (Node child : node.next) {
+            if (results.size() >= limit) {
+                return;
+            }
+            if (child != null) {
+                collect(child, limit, results);
+            }
+        }
+    }
+    
+    private static void insert(Node root, String digits, boolean reversed, Contact contact) {
+        Node node = root;
+        node.count++;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = digitAt(digits, i, reversed);
+            if (node.next == null) {
+                node.next = new Node[10];
+            }
+            if (node.next[digit] == null) {
+                node.next[digit] = new Node();
+            }
+            node = node.next[digit];
+            node.count++;
+        }
+        node.contact = contact;
+    }
+    
+    private static void delete(Node root, String digits, boolean reversed, Contact contact) {
+        // Only remove what is actually stored for this number
+        Node node = root;
+        for (int i = 0; i < digits.length() && node != null; i++) {
+            node = node.next != null ? node.next[digitAt(digits, i, reversed)] : null;
+        }
+        if (node == null || node.contact != contact) {
+            return;
+        }
+        
+        node = root;
+        node.count--;
+        for (int i = 0; i < digits.length(); i++) {
+            int digit = digitAt(digits, i, reversed);
+            Node child = node.next[digit];
+            if (--child.count == 0) {
+                node.next[digit] = null; // Prune the now empty branch
+                return;
+            }
+            node = child;
+        }
+        node.contact = null;
+    }
+    
+    private static int digitAt(String digits, int i, boolean reversed) {
+        return digits.charAt(reversed ? digits.length() - 1 - i : i) - '0';
+    }
+    
+    private static String digitsOf(Contact contact) {
+        String digits = contact.getNormalizedPhone();
+        return isDigits(digits) ? digits : null;
+    }
+    
+    // normalizePhone yields either pure digits or the original text
+    private static boolean isDigits(String value) {
+        return !value.isEmpty() && value.charAt(0) >= '0' && value.charAt(0) <= '9';
+    }
+}
@@ -0,0 +1,206 @@
+import java.util.*;
+
+/**
+ * PrefixIndex class implementing a compact character trie for type-ahead
+ * Keys are the lower-cased full name, each name word and the email
+ * local-part. A lookup walks the prefix and then collects the first k
+ * contacts in key order, so its cost depends on the prefix and k rather
+ * than on the number of stored contacts. Contacts sharing the exact same
+ * key come back in no particular order.
+ */
+public class PrefixIndex {
+    // Terminal lists switch to an identity set beyond this size, so that
+    // removing one contact from a very common key stays O(1)
+    private static final int SMALL_TERMINAL = 16;
+    
+    // Trie node with children kept in sorted parallel arrays
+    private static class Node {
+        char[] labels = new char[0];
+        Node[] children = new Node[0];
+        Collection<Contact> contacts; // Contacts whose key ends here
+        
+        void addContact(Contact contact) {
+            if (contacts == null) {
+                contacts = new ArrayList<>(1);
+            } else if (contacts instanceof ArrayList && contacts.size() >= SMALL_TERMINAL) {
+                Set<Contact> set = Collections.newSetFromMap(new IdentityHashMap<>());
+                set.addAll(contacts);
+                contacts = set;
+            }
+            contacts.add(contact);
+        }
+        
+        void removeContact(Contact contact) {
+            if (contacts instanceof ArrayList) {
+                ArrayList<Contact> list = (ArrayList<Contact>) contacts;
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i) == contact) {
+                        list.remove(i);
+                        break;
+                    }
+                }
+            } else if (contacts != null) {
+                contacts.remove(contact);
+            }
+            if (contacts != null && contacts.isEmpty()) {
+                contacts = null;
+            }
+        }
+        
+        Node child(char label) {
+            int pos = Arrays.binarySearch(labels, label);
+            return pos >= 0 ? children[pos] : null;
+        }
+        
+        Node addChild(char label) {
+            int pos = Arrays.binarySearch(labels, label);
+            if (pos >= 0) {
+                return children[pos];
+            }
+            pos = -pos - 1;
+            char[] newLabels = new char[labels.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(labels, 0, newLabels, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            newLabels[pos] = label;
+            newChildren[pos] = new Node();
+            System.arraycopy(labels, pos, newLabels, pos + 1, labels.length - pos);
+            System.arraycopy(children, pos, newChildren, pos + 1, children.length - pos);
+            labels = newLabels;
+            children = newChildren;
+            return newChildren[pos];
+        }
+        
+        void removeChild(char label) {
+            int pos = Arrays.binarySearch(labels, label);
+            if (pos < 0) {
+                return;
+            }
+            char[] newLabels = new char[labels.length - 1];
+            Node[] newChildren = new Node[children.length - 1];
+            System.arraycopy(labels, 0, newLabels, 0, pos);
+            System.arraycopy(children, 0, newChildren, 0, pos);
+            System.arraycopy(labels, pos + 1, newLabels, pos, labels.length - pos - 1);
+            System.arraycopy(children, pos + 1, newChildren, pos, children.length - pos - 1);
+            labels = newLabels;
+            children = newChildren;
+        }
+        
+        boolean isEmpty() {
+            return labels.length == 0 && (contacts == null || contacts.isEmpty());
+        }
+    }
+    
+    private final Node root = new Node();
+    private int size;
+    
+    // Index a newly stored contact under all of its keys
+    public void add(Contact contact) {
+        for (String key : keysFor(contact)) {
+            Node node = root;
+            for (int i = 0; i < key.length(); i++) {
+                node = node.addChild(key.charAt(i));
+            }
+            node.addContact(contact);
+        }
+        size++;
+    }
+    
+    // Remove a contact from all of its keys and prune empty branches
+    public void remove(Contact contact) {
+        for (String key : keysFor(contact)) {
+            remove(root, key, 0, contact);
+        }
+        size--;
+    }
+    
+    // Up to limit distinct contacts whose name, name word or email local-part
+    // starts with the prefix, ordered by the matching key
+    public ArrayList<Contact> complete(String prefix, int limit) {
+        ArrayList<Contact> results = new ArrayList<>();
+        if (prefix == null || limit <= 0) {
+            return results;
+        }
+        
+        String key = prefix.trim().toLowerCase();
+        if (key.isEmpty()) {
+            return results;
+        }
+        
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node != null) {
+            collect(node, limit, results, Collections.newSetFromMap(new IdentityHashMap<>()));
+        }
+        return results;
+    }
+    
+    // Number of contacts in the index
+    public int size() {
+        return size;
+    }
+    
+    // Depth-first walk in key order, stopping once enough contacts are found
+    private static boolean collect(Node node, int limit, ArrayList<Contact> results, Set<Contact> seen) {
+        if (node.contacts != null) {
+            for (Contact contact : node.contacts) {
+                if (seen.add(contact)) {
+                    results.add(contact);
+                    if (results.size() >= limit) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (Node child : node.children) {
+            if (collect(child, limit, results, seen)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    // Returns true when the node became empty and can be unlinked by its parent
+    private static boolean remove(Node node, String key, int depth, Contact contact) {
+        if (depth == key.length()) {
+            node.removeContact(contact);
+            return node.isEmpty();
+        }
+        
+        char label = key.charAt(depth);
+        Node child = node.child(label);
+        if (child != null && remove(child, key, depth + 1, contact)) {
+            node.removeChild(label);
+        }
+        return node.isEmpty();
+    }
+    
+    // Full name, each name word and the email local-part, lower-cased and distinct
+    private static Set<String> keysFor(Contact contact) {
+        LinkedHashSet<String> keys = new LinkedHashSet<>();
+        String name = contact.getName().toLowerCase();
+        if (!name.isEmpty()) {
+            keys.add(name);
+            int wordStart = -1;
+            for (int i = 0; i <= name.length(); i++) {
+                boolean space = i == name.length() || Character.isWhitespace(name.charAt(i));
+                if (space && wordStart >= 0) {
+                    keys.add(name.substring(wordStart, i));
+                    wordStart = -1;
+                } else if (!space && wordStart < 0) {
+                    wordStart = i;
+                }
+            }
+        }
+        
+        String email = contact.getEmail().toLowerCase();
+        int at = email.indexOf('@');
+        String localPart = at >= 0 ? email.substring(0, at) : email;
+        if (!localPart.isEmpty()) {
+            keys.add(localPart);
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.*;
+
+/**
+ * QueryCache class remembering the results of recent keyword searches
+ * Bounded by the number of entries and by their total weight (one unit per
+ * cached contact plus one per entry), evicting least recently used entries.
+ * Admission follows TinyLFU: a count-min sketch estimates how often each
+ * keyword was searched recently, and a new result only displaces entries
+ * that were searched less often, so one-off queries cannot flush the
+ * handful of searches that are repeated all the time. The sketch is halved
+ * periodically so old popularity fades.
+ *
+ * Invalidation is exact: a stored contact that is added, changed or
+ * removed drops only the entries whose keyword it matches (before or after
+ * the change). Bulk loads clear the cache instead.
+ * All methods are synchronized, so concurrent readers may share it.
+ */
+public class QueryCache {
+    public static final int DEFAULT_MAX_ENTRIES = 256;
+    public static final int DEFAULT_MAX_WEIGHT = 1_000_000;
+    
+    // Count-min sketch rows, and sketch increments between two halvings
+    // per allowed entry
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SAMPLES_PER_ENTRY = 10;
+    
+    // Odd multipliers giving each sketch row its own hash function
+    private static final int[] ROW_SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+    
+    private final int maxEntries;
+    private final int maxWeight;
+    private final LinkedHashMap<String, ArrayList<Contact>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+    
+    // Recent keywords whose results were too large to cache, so they are
+    // not searched in full again just to be turned away (at most maxEntries)
+    private final LinkedHashMap<String, Boolean> oversized;
+    
+    private final int[][] sketch;
+    private final int sketchShift;
+    private final int sampleSize;
+    private int samples;
+    
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    private long invalidations;
+    
+    public QueryCache() {
+        this(DEFAULT_MAX_ENTRIES, DEFAULT_MAX_WEIGHT);
+    }
+    
+    public QueryCache(int maxEntries, int maxWeight) {
+        this.maxEntries = maxEntries;
+        this.maxWeight = maxWeight;
+        int width = Integer.highestOneBit(Math.max(16, maxEntries * 4 - 1)) << 1;
+        this.sketch = new int[SKETCH_DEPTH][width];
+        this.sketchShift = 32 - Integer.numberOfTrailingZeros(width);
+        this.sampleSize = SAMPLES_PER_ENTRY * maxEntries;
+        this.oversized = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+    
+    // Cached results for a keyword, or null; counts the lookup either way
+    synchronized ArrayList<Contact> get(String keyword) {
+        recordAccess(keyword);
+        ArrayList<Contact> results = entries.get(keyword);
+        if (results != null) {
+            hits++;
+        } else {
+            misses++;
+        }
+        return results;
+    }
+    
+    // Cached results without counting a lookup (e.g. for later pages of
+    // a search whose first page was already counted)
+    synchronized ArrayList<Contact> peek(String keyword) {
+        return entries.get(keyword);
+    }
+    
+    // Whether a keyword was looked up more than once recently and its
+    // results were not too large last time, i.e. it is worth computing in
+    // full to cache it
+    synchronized boolean isRepeated(String keyword) {
+        return frequencyOf(keyword) >= 2 && oversized.get(keyword) == null;
+    }
+    
+    // Largest result list that is cached (an eighth of the weight limit)
+    public int getMaxResultSize() {
+        return maxWeight / 8 - 1;
+    }
+    
+    // Offer freshly computed results; returns whether they were admitted
+    synchronized boolean put(String keyword, ArrayList<Contact> results) {
+        long entryWeight = weightOf(results);
+        if (results.size() > getMaxResultSize()) {
+            oversized.put(keyword, Boolean.TRUE);
+            return false;
+        }
+        if (entries.containsKey(keyword)) {
+            return false;
+        }
+        
+        // Victims that would have to go, least recently used first
+        long needed = weight + entryWeight - maxWeight;
+        int surplus = entries.size() + 1 - maxEntries;
+        ArrayList<String> victims = new ArrayList<>();
+        int frequency = frequencyOf(keyword);
+        for (Map.Entry<String, ArrayList<Contact>> entry : entries.entrySet()) {
+            if (needed <= 0 && surplus <= 0) {
+                break;
+            }
+            if (frequencyOf(entry.getKey()) >= frequency) {
+                rejections++;
+                return false;
+            }
+            victims.add(entry.getKey());
+            needed -= weightOf(entry.getValue());
+            surplus--;
+        }
+        
+        for (String victim : victims) {
+            weight -= weightOf(entries.remove(victim));
+            evictions++;
+        }
+        entries.put(keyword, results);
+        weight += entryWeight;
+        return true;
+    }
+    
+    // Drop the entries a stored, changed or removed contact could affect
+    synchronized void invalidate(Contact contact) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Iterator<Map.Entry<String, ArrayList<Contact>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, ArrayList<Contact>> entry = iterator.next();
+            if (contact.matches(entry.getKey())) {
+                weight -= weightOf(entry.getValue());
+                iterator.remove();
+                invalidations++;
+            }
+        }
+    }
+    
+    // Drop everything (bulk changes); statistics and the sketch are kept
+    synchronized void clear() {
+        invalidations += entries.size();
+        entries.clear();
+        oversized.clear();
+        weight = 0;
+    }
+    
+    public synchronized long getHits() {
+        return hits;
+    }
+    
+    public synchronized long getMisses() {
+        return misses;
+    }
+    
+    // Entries removed to make room for others
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+    
+    // Results not cached because the entries they would displace were
+    // searched at least as often
+    public synchronized long getRejections() {
+        return rejections;
+    }
+    
+    // Entries dropped because the contacts they list changed
+    public synchronized long getInvalidations() {
+        return invalidations;
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    // Current total weight (cached contacts plus one per entry)
+    public synchronized long getWeight() {
+        return weight;
+    }
+    
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+    
+    @Override
+    public synchronized String toString() {
+        return String.format("QueryCache[entries=%d, weight=%d, hits=%d, misses=%d, evictions=%d, "
+                + "rejections=%d, invalidations=%d]", entries.size(), weight, hits, misses, evictions,
+                rejections, invalidations);
+    }
+    
+    private static long weightOf(ArrayList<Contact> results) {
+        return results.size() + 1L;
+    }
+    
+    private void recordAccess(String keyword) {
+        int hash = spread(keyword.hashCode());
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            int[] counters = sketch[row];
+            int index = indexOf(hash, row);
+            if (counters[index] < Integer.MAX_VALUE) {
+                counters[index]++;
+            }
+        }
+        if (++samples >= sampleSize) {
+            age();
+        }
+    }
+    
+    // Estimated recent searches for a keyword (minimum over the rows)
+    private int frequencyOf(String keyword) {
+        int hash = spread(keyword.hashCode());
+        int frequency = Integer.MAX_VALUE;
+        for (int row = 0; row < SKETCH_DEPTH; row++) {
+            frequency = Math.min(frequency, sketch[row][indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+    
+    // Halve every counter, so frequencies reflect recent searches
+    private void age() {
+        for (int[] counters : sketch) {
+            for (int i = 0; i < counters.length; i++) {
+                counters[i] >>>= 1;
+            }
+        }
+        samples /= 2;
+    }
+    
+    // Multiplicative hashing: the top bits of hash * seed
+    private int indexOf(int hash, int row) {
+        return (hash * ROW_SEEDS[row]) >>> sketchShift;
+    }
+    
+    private static int spread(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85EBCA6B;
+        return hash ^ (hash >>> 13);
+    }
+}
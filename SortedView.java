@@ -0,0 +1,288 @@
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * SortedView class keeping contacts ordered by a precomputed sort key
+ * Backed by an order-statistic treap (a randomized balanced tree whose
+ * nodes know their subtree size), so add, remove, get(index) and
+ * indexOf are all O(log n) and a page is O(log n + page size).
+ * Contacts with equal keys keep the order in which they were added.
+ */
+public class SortedView<K extends Comparable<K>> extends AbstractList<Contact> {
+    private class Node {
+        final Contact contact;
+        final K key;
+        final long seq;
+        final int priority;
+        Node left;
+        Node right;
+        int size = 1;
+        
+        Node(Contact contact, K key, long seq) {
+            this.contact = contact;
+            this.key = key;
+            this.seq = seq;
+            this.priority = random.nextInt();
+        }
+    }
+    
+    private final Function<Contact, K> keyFunction;
+    private final IdentityHashMap<Contact, Node> nodes = new IdentityHashMap<>();
+    private final Random random = new Random();
+    private Node root;
+    private long nextSeq;
+    
+    public SortedView(Function<Contact, K> keyFunction) {
+        this.keyFunction = keyFunction;
+    }
+    
+    // View ordered by name using the default locale's collation, ignoring case
+    public static SortedView<CollationKey> byName() {
+        Collator collator = Collator.getInstance();
+        collator.setStrength(Collator.SECONDARY);
+        return new SortedView<>(contact -> collator.getCollationKey(contact.getName()));
+    }
+    
+    // View ordered by phone text, like the original phone sort
+    public static SortedView<String> byPhone() {
+        return new SortedView<>(Contact::getPhone);
+    }
+    
+    // Insert a stored contact at its sorted position
+    @Override
+    public boolean add(Contact contact) {
+        Node node = new Node(contact, keyFunction.apply(contact), nextSeq++);
+        nodes.put(contact, node);
+        root = insert(root, node);
+        return true;
+    }
+    
+    // Remove a stored contact
+    @Override
+    public boolean remove(Object contact) {
+        Node node = nodes.remove(contact);
+        if (node == null) {
+            return false;
+        }
+        root = delete(root, node);
+        return true;
+    }
+    
+    // Contact at the given position in sorted order
+    @Override
+    public Contact get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size());
+        }
+        
+        Node node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index == leftSize) {
+                return node.contact;
+            } else {
+                index -= leftSize + 1;
+                node = node.right;
+            }
+        }
+    }
+    
+    // Position of a stored contact, or -1
+    @Override
+    public int indexOf(Object contact) {
+        Node target = nodes.get(contact);
+        if (target == null) {
+            return -1;
+        }
+        
+        int rank = 0;
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(target, node);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                rank += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return rank + size(node.left);
+            }
+        }
+        return -1;
+    }
+    
+    @Override
+    public boolean contains(Object contact) {
+        return nodes.containsKey(contact);
+    }
+    
+    @Override
+    public int size() {
+        return size(root);
+    }
+    
+    // Up to limit contacts starting at offset, walking the tree in order
+    public ArrayList<Contact> page(int offset, int limit) {
+        ArrayList<Contact> results = new ArrayList<>();
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        
+        // Descend to the node at position offset, remembering pending parents
+        Node node = root;
+        int skip = Math.max(0, offset);
+        while (node != null) {
+            int leftSize = size(node.left);
+            if (skip < leftSize) {
+                stack.push(node);
+                node = node.left;
+            } else if (skip == leftSize) {
+                stack.push(node);
+                break;
+            } else {
+                skip -= leftSize + 1;
+                node = node.right;
+            }
+        }
+        
+        while (!stack.isEmpty() && results.size() < limit) {
+            node = stack.pop();
+            results.add(node.contact);
+            for (Node next = node.right; next != null; next = next.left) {
+                stack.push(next);
+            }
+        }
+        return results;
+    }
+    
+    @Override
+    public Iterator<Contact> iterator() {
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        for (Node node = root; node != null; node = node.left) {
+            stack.push(node);
+        }
+        return iterator(stack);
+    }
+    
+    // Contacts whose sort key is greater than key, in order; O(log n) to
+    // position, so paging by "last key seen" does not rescan earlier pages
+    public Iterator<Contact> iteratorAfter(K key) {
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node node = root;
+        while (node != null) {
+            if (node.key.compareTo(key) > 0) {
+                stack.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        return iterator(stack);
+    }
+    
+    // In-order iterator continuing from a stack of pending nodes
+    private Iterator<Contact> iterator(ArrayDeque<Node> stack) {
+        return new Iterator<Contact>() {
+            @Override
+            public boolean hasNext() {
+                return !stack.isEmpty();
+            }
+            
+            @Override
+            public Contact next() {
+                if (stack.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node node = stack.pop();
+                for (Node next = node.right; next != null; next = next.left) {
+                    stack.push(next);
+                }
+                return node.contact;
+            }
+        };
+    }
+    
+    private int compare(Node a, Node b) {
+        int cmp = a.key.compareTo(b.key);
+        return cmp != 0 ? cmp : Long.compare(a.seq, b.seq);
+    }
+    
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (added.priority > node.priority) {
+            Split parts = split(node, added);
+            added.left = parts.left;
+            added.right = parts.right;
+            return update(added);
+        }
+        if (compare(added, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return update(node);
+    }
+    
+    private Node delete(Node node, Node removed) {
+        if (node == removed) {
+            return merge(node.left, node.right);
+        }
+        if (compare(removed, node) < 0) {
+            node.left = delete(node.left, removed);
+        } else {
+            node.right = delete(node.right, removed);
+        }
+        return update(node);
+    }
+    
+    // Result of a split: nodes ordered before the pivot and nodes after it
+    private class Split {
+        Node left;
+        Node right;
+    }
+    
+    private Split split(Node node, Node pivot) {
+        if (node == null) {
+            return new Split();
+        }
+        if (compare(node, pivot) < 0) {
+            Split parts = split(node.right, pivot);
+            node.right = parts.left;
+            parts.left = update(node);
+            return parts;
+        }
+        Split parts = split(node.left, pivot);
+        node.left = parts.right;
+        parts.right = update(node);
+        return parts;
+    }
+    
+    // Merge two treaps where every node of left orders before every node of right
+    private Node merge(Node left, Node right) {
+        if (left == null) {
+            return right;
+        }
+        if (right == null) {
+            return left;
+        }
+        if (left.priority > right.priority) {
+            left.right = merge(left.right, right);
+            return update(left);
+        }
+        right.left = merge(left, right.left);
+        return update(right);
+    }
+    
+    private Node update(Node node) {
+        node.size = 1 + size(node.left) + size(node.right);
+        return node;
+    }
+    
+    private int size(Node node) {
+        return node != null ? node.size : 0;
+    }
+}
@@ -0,0 +1,78 @@
+import java.util.*;
+
+/**
+ * StringDictionary class mapping repeated strings to small integer codes
+ * Each distinct value is stored once as a canonical instance and carries a
+ * reference count, so the number of users of a value (e.g. contacts per
+ * email domain) is known without scanning. Codes of values whose count
+ * drops to zero are reused.
+ */
+public class StringDictionary {
+    private final HashMap<String, Integer> codes = new HashMap<>();
+    private String[] values = new String[16];
+    private int[] counts = new int[16];
+    private int[] freeCodes = new int[16];
+    private int freeCount;
+    private int nextCode;
+    
+    // Code of the value, adding it if needed, and count one more use
+    public int acquire(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = freeCount > 0 ? freeCodes[--freeCount] : newCode();
+            values[code] = value;
+            codes.put(value, code);
+        }
+        counts[code]++;
+        return code;
+    }
+    
+    // Count one use less; the value is dropped when nobody uses it any more
+    public void release(int code) {
+        if (code < 0 || code >= nextCode || counts[code] == 0) {
+            throw new IllegalArgumentException("Code not in use: " + code);
+        }
+        if (--counts[code] == 0) {
+            codes.remove(values[code]);
+            values[code] = null;
+            if (freeCount == freeCodes.length) {
+                freeCodes = Arrays.copyOf(freeCodes, freeCount * 2);
+            }
+            freeCodes[freeCount++] = code;
+        }
+    }
+    
+    // Canonical instance for a code
+    public String get(int code) {
+        return values[code];
+    }
+    
+    // Code of a value, or -1 if it is not in the dictionary
+    public int codeOf(String value) {
+        Integer code = codes.get(value);
+        return code != null ? code : -1;
+    }
+    
+    // Number of uses of a code (0 for free codes)
+    public int count(int code) {
+        return code >= 0 && code < nextCode ? counts[code] : 0;
+    }
+    
+    // Number of distinct values
+    public int size() {
+        return codes.size();
+    }
+    
+    // Upper bound (exclusive) of the codes handed out so far
+    public int codeLimit() {
+        return nextCode;
+    }
+    
+    private int newCode() {
+        if (nextCode == values.length) {
+            values = Arrays.copyOf(values, nextCode * 2);
+            counts = Arrays.copyOf(counts, nextCode * 2);
+        }
+        return nextCode++;
+    }
+}
@@ -0,0 +1,115 @@
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * StripedReadWriteLock class spreading readers over several read/write locks
+ * A reader only takes the read lock of its own stripe (chosen by thread id),
+ * so concurrent readers do not contend on one shared counter. A writer takes
+ * the write lock of every stripe in a fixed order, which excludes all readers
+ * and all other writers. Both sides are reentrant, and a writer may also take
+ * the read lock.
+ */
+public class StripedReadWriteLock {
+    private final ReentrantReadWriteLock[] stripes;
+    private final Lock writeLock = new AllStripesWriteLock();
+    
+    // One stripe per two hardware threads, rounded up to a power of two
+    public StripedReadWriteLock() {
+        this(Runtime.getRuntime().availableProcessors() * 2);
+    }
+    
+    public StripedReadWriteLock(int stripeCount) {
+        int count = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        stripes = new ReentrantReadWriteLock[count];
+        for (int i = 0; i < count; i++) {
+            stripes[i] = new ReentrantReadWriteLock();
+        }
+    }
+    
+    // Read lock of the calling thread's stripe
+    public Lock readLock() {
+        long id = Thread.currentThread().getId();
+        int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        return stripes[(hash >>> 16) & (stripes.length - 1)].readLock();
+    }
+    
+    // Exclusive lock over all stripes
+    public Lock writeLock() {
+        return writeLock;
+    }
+    
+    public int getStripeCount() {
+        return stripes.length;
+    }
+    
+    private class AllStripesWriteLock implements Lock {
+        @Override
+        public void lock() {
+            for (ReentrantReadWriteLock stripe : stripes) {
+                stripe.writeLock().lock();
+            }
+        }
+        
+        @Override
+        public void lockInterruptibly() throws InterruptedException {
+            int locked = 0;
+            try {
+                for (; locked < stripes.length; locked++) {
+                    stripes[locked].writeLock().lockInterruptibly();
+                }
+            } catch (InterruptedException e) {
+                unlockFirst(locked);
+                throw e;
+            }
+        }
+        
+        @Override
+        public boolean tryLock() {
+            for (int i = 0; i < stripes.length; i++) {
+                if (!stripes[i].writeLock().tryLock()) {
+                    unlockFirst(i);
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public boolean tryLock(long time, TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(time);
+            for (int i = 0; i < stripes.length; i++) {
+                boolean locked;
+                try {
+                    locked = stripes[i].writeLock().tryLock(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    unlockFirst(i);
+                    throw e;
+                }
+                if (!locked) {
+                    unlockFirst(i);
+                    return false;
+                }
+            }
+            return true;
+        }
+        
+        @Override
+        public void unlock() {
+            unlockFirst(stripes.length);
+        }
+        
+        @Override
+        public Condition newCondition() {
+            throw new UnsupportedOperationException("Conditions are not supported on a striped lock");
+        }
+        
+        // Release the first count stripes in reverse order
+        private void unlockFirst(int count) {
+            for (int i = count - 1; i >= 0; i--) {
+                stripes[i].writeLock().unlock();
+            }
+        }
+    }
+}
@@ -0,0 +1,229 @@
+import java.util.*;
+
+/**
+ * TrigramIndex class providing an inverted n-gram index for substring search
+ * Every lower-cased name, phone and email is split into 3-character grams;
+ * a query intersects the posting lists of its grams and only verifies the
+ * surviving candidates with Contact.matches.
+ *
+ * Contacts get increasing slot numbers, so posting lists stay sorted.
+ * Results come back in contact ID order: slots are in ID order except for
+ * re-added (updated) contacts, which are marked as displaced and merged in
+ * separately, so a page of results stops verifying candidates once it is
+ * full. Removed slots are skipped at query time; a rebuild reclaims them
+ * once they outnumber the live ones, and restores ID order once displaced
+ * slots are more than a quarter of the live ones.
+ */
+public class TrigramIndex {
+    public static final int GRAM_LENGTH = 3;
+    private static final int MIN_REBUILD_TOMBSTONES = 1024;
+    
+    // Sorted, append-only list of slots containing one trigram
+    private static class Postings {
+        int[] slots = new int[4];
+        int size;
+        
+        void add(int slot) {
+            if (size > 0 && slots[size - 1] == slot) {
+                return; // Same gram seen twice in one contact
+            }
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+            }
+            slots[size++] = slot;
+        }
+    }
+    
+    private final HashMap<Long, Postings> postings = new HashMap<>();
+    private final IdentityHashMap<Contact, Integer> slotOf = new IdentityHashMap<>();
+    private Contact[] contacts = new Contact[16];
+    private int nextSlot;
+    private int tombstones;
+    
+    // Slots whose contact ID is lower than that of an earlier slot
+    private final BitSet displaced = new BitSet();
+    private int displacedCount;
+    private long lastId;
+    
+    // Index a newly stored contact
+    public void add(Contact contact) {
+        if (nextSlot == contacts.length) {
+            contacts = Arrays.copyOf(contacts, nextSlot * 2);
+        }
+        int slot = nextSlot++;
+        contacts[slot] = contact;
+        slotOf.put(contact, slot);
+        if (contact.getId() >= lastId) {
+            lastId = contact.getId();
+        } else {
+            displaced.set(slot);
+            displacedCount++;
+        }
+        
+        addGrams(contact.getName().toLowerCase(), slot);
+        addGrams(contact.getPhone().toLowerCase(), slot);
+        addGrams(contact.getEmail().toLowerCase(), slot);
+        
+        if (displacedCount >= MIN_REBUILD_TOMBSTONES && displacedCount * 4 > slotOf.size()) {
+            rebuild();
+        }
+    }
+    
+    // Forget a contact; its slot stays in the posting lists until the next rebuild
+    public void remove(Contact contact) {
+        Integer slot = slotOf.remove(contact);
+        if (slot == null) {
+            return;
+        }
+        contacts[slot] = null;
+        tombstones++;
+        if (displaced.get(slot)) {
+            displaced.clear(slot);
+            displacedCount--;
+        }
+        
+        if (tombstones >= MIN_REBUILD_TOMBSTONES && tombstones > slotOf.size()) {
+            rebuild();
+        }
+    }
+    
+    // Return contacts matching the keyword in ID order, or null when the
+    // keyword is shorter than a trigram and the caller has to scan
+    public ArrayList<Contact> search(String keyword) {
+        return search(keyword, 0, Integer.MAX_VALUE);
+    }
+    
+    // Up to limit matching contacts with an ID above afterId, in ID order
+    // (null as above); candidates past the page are not verified
+    public ArrayList<Contact> search(String keyword, long afterId, int limit) {
+        int[] candidates = candidates(keyword.toLowerCase());
+        if (candidates == null) {
+            return null;
+        }
+        
+        // Displaced matches are few: verify them all and sort by ID
+        ArrayList<Contact> late = new ArrayList<>();
+        if (displacedCount > 0) {
+            for (int slot : candidates) {
+                Contact contact = contacts[slot];
+                if (displaced.get(slot) && contact != null && contact.getId() > afterId && contact.matches(keyword)) {
+                    late.add(contact);
+                }
+            }
+            late.sort(Comparator.comparingLong(Contact::getId));
+        }
+        
+        // Merge them with the in-order slots, which are verified lazily
+        ArrayList<Contact> results = new ArrayList<>();
+        int next = 0;
+        for (int i = 0; i < candidates.length && results.size() < limit; i++) {
+            int slot = candidates[i];
+            Contact contact = contacts[slot];
+            if (contact == null || contact.getId() <= afterId || displaced.get(slot) || !contact.matches(keyword)) {
+                continue;
+            }
+            while (next < late.size() && late.get(next).getId() < contact.getId() && results.size() < limit) {
+                results.add(late.get(next++));
+            }
+            if (results.size() < limit) {
+                results.add(contact);
+            }
+        }
+        while (next < late.size() && results.size() < limit) {
+            results.add(late.get(next++));
+        }
+        return results;
+    }
+    
+    // Slots containing every gram of the lower-cased keyword, ascending;
+    // null when the keyword is shorter than a trigram
+    private int[] candidates(String lower) {
+        if (lower.length() < GRAM_LENGTH) {
+            return null;
+        }
+        
+        // Gather the posting list of every distinct gram, rarest first
+        ArrayList<Postings> lists = new ArrayList<>();
+        HashSet<Long> seen = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lower.length(); i++) {
+            long gram = gram(lower, i);
+            if (seen.add(gram)) {
+                Postings list = postings.get(gram);
+                if (list == null) {
+                    return new int[0]; // Some gram occurs nowhere
+                }
+                lists.add(list);
+            }
+        }
+        lists.sort(Comparator.comparingInt(list -> list.size));
+        
+        int[] candidates = Arrays.copyOf(lists.get(0).slots, lists.get(0).size);
+        int count = candidates.length;
+        for (int i = 1; i < lists.size() && count > 0; i++) {
+            count = intersect(candidates, count, lists.get(i));
+        }
+        return Arrays.copyOf(candidates, count);
+    }
+    
+    // Number of live contacts in the index
+    public int size() {
+        return slotOf.size();
+    }
+    
+    // Number of distinct trigrams currently indexed
+    public int gramCount() {
+        return postings.size();
+    }
+    
+    private void addGrams(String text, int slot) {
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            postings.computeIfAbsent(gram(text, i), key -> new Postings()).add(slot);
+        }
+    }
+    
+    // Pack three UTF-16 chars into one long key
+    private static long gram(String text, int start) {
+        return ((long) text.charAt(start) << 32) | ((long) text.charAt(start + 1) << 16) | text.charAt(start + 2);
+    }
+    
+    // Keep the candidates that also occur in the list; both are sorted, so
+    // gallop through the (usually longer) list with binary search
+    private static int intersect(int[] candidates, int count, Postings list) {
+        int kept = 0;
+        int from = 0;
+        for (int i = 0; i < count && from < list.size; i++) {
+            int pos = Arrays.binarySearch(list.slots, from, list.size, candidates[i]);
+            if (pos >= 0) {
+                candidates[kept++] = candidates[i];
+                from = pos + 1;
+            } else {
+                from = -pos - 1;
+            }
+        }
+        return kept;
+    }
+    
+    // Re-number live contacts densely in ID order and rebuild all posting lists
+    private void rebuild() {
+        Contact[] live = new Contact[slotOf.size()];
+        int count = 0;
+        for (int slot = 0; slot < nextSlot; slot++) {
+            if (contacts[slot] != null) {
+                live[count++] = contacts[slot];
+            }
+        }
+        Arrays.sort(live, Comparator.comparingLong(Contact::getId));
+        
+        postings.clear();
+        slotOf.clear();
+        contacts = new Contact[Math.max(16, count * 2)];
+        nextSlot = 0;
+        tombstones = 0;
+        displaced.clear();
+        displacedCount = 0;
+        lastId = 0;
+        for (Contact contact : live) {
+            add(contact);
+        }
+    }
+}
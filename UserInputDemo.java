@@ -8,6 +8,8 @@ public class UserInputDemo {
     public static void main(String[] args) {
         Scanner scanner = new Scanner(System.in);
         ContactManager manager = new ContactManager();
+        ConsoleContactListener console = new ConsoleContactListener();
+        manager.addListener(console);
         
         System.out.println("=".repeat(60));
         System.out.println("        CONTACT VAULT - USER INPUT DEMO");
@@ -28,12 +30,12 @@ public class UserInputDemo {
         
         // Create and add the contact
         Contact contact = new Contact(name, phone, email);
-        boolean success = manager.addContact(contact);
+        boolean success = manager.addContact(contact).isSuccess();
         
         if (success) {
             System.out.println("\n>> Contact added successfully!");
             System.out.println("Here's your contact:");
-            manager.displayAllContacts();
+            console.displayAllContacts(manager);
         }
         
         // Demonstrate search functionality
@@ -42,7 +44,7 @@ public class UserInputDemo {
         String keyword = scanner.nextLine();
         
         if (!keyword.trim().isEmpty()) {
-            manager.displaySearchResults(keyword);
+            console.displaySearchResults(manager, keyword);
         }
         
         // Ask if user wants to export
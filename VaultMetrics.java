@@ -0,0 +1,214 @@
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * VaultMetrics class collecting counters, latency histograms and gauges
+ * Every ContactManager operation records its duration and outcome here;
+ * rejections are counted by reason and imports/exports by rows. Recording
+ * costs two clock reads and a few uncontended atomic adds, so it is always
+ * on. Gauges (contact count, index sizes, heap) are sampled when read.
+ * Everything can be read programmatically or rendered in the Prometheus
+ * text format, dumped to a file or served from a local HTTP endpoint.
+ */
+public class VaultMetrics {
+    // Timed operations, with the name used in the exported metrics
+    public enum Operation {
+        ADD("add"), UPDATE("update"), DELETE("delete"),
+        SEARCH("search"), AUTOCOMPLETE("autocomplete"), PHONE_LOOKUP("phone_lookup"),
+        DOMAIN_LOOKUP("domain_lookup"), IMPORT("import"), EXPORT("export"),
+        SNAPSHOT_SAVE("snapshot_save"), SNAPSHOT_LOAD("snapshot_load"),
+        JOURNAL_SYNC("journal_sync"), JOURNAL_COMPACT("journal_compact"),
+        ADD_ALL("add_all"), UPDATE_ALL("update_all"), DELETE_ALL("delete_all");
+        
+        private final String label;
+        
+        Operation(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+    }
+    
+    // Counted events that are not operations of their own
+    public enum Counter {
+        REJECTED_DUPLICATE("rejected_duplicate"), REJECTED_INVALID("rejected_invalid"),
+        REJECTED_NOT_FOUND("rejected_not_found"), JOURNAL_ERRORS("journal_errors"),
+        IMPORT_ROWS_ACCEPTED("import_rows_accepted"), IMPORT_ROWS_DUPLICATE("import_rows_duplicate"),
+        IMPORT_ROWS_INVALID("import_rows_invalid"), IMPORT_ROWS_MALFORMED("import_rows_malformed"),
+        EXPORT_ROWS("export_rows"), SEARCH_RESULTS("search_results");
+        
+        private final String label;
+        
+        Counter(String label) {
+            this.label = label;
+        }
+        
+        public String getLabel() {
+            return label;
+        }
+    }
+    
+    private static final String PREFIX = "contactvault_";
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    
+    private final LatencyHistogram[] latencies = new LatencyHistogram[Operation.values().length];
+    private final LongAdder[] failures = new LongAdder[Operation.values().length];
+    private final LongAdder[] counters = new LongAdder[Counter.values().length];
+    private final LinkedHashMap<String, LongSupplier> gauges = new LinkedHashMap<>();
+    private final Map<String, String> gaugeHelp = new HashMap<>();
+    
+    public VaultMetrics() {
+        for (int i = 0; i < latencies.length; i++) {
+            latencies[i] = new LatencyHistogram();
+            failures[i] = new LongAdder();
+        }
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = new LongAdder();
+        }
+        registerGauge("heap_used_bytes", "Heap memory in use",
+                () -> Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory());
+        registerGauge("heap_max_bytes", "Maximum heap size", () -> Runtime.getRuntime().maxMemory());
+    }
+    
+    // RECORD - Duration since startNanos (a System.nanoTime value) and outcome
+    public void record(Operation operation, long startNanos, boolean succeeded) {
+        latencies[operation.ordinal()].record(System.nanoTime() - startNanos);
+        if (!succeeded) {
+            failures[operation.ordinal()].increment();
+        }
+    }
+    
+    public void increment(Counter counter) {
+        counters[counter.ordinal()].increment();
+    }
+    
+    public void add(Counter counter, long amount) {
+        counters[counter.ordinal()].add(amount);
+    }
+    
+    // RECORD - Add a gauge, sampled whenever metrics are read
+    public synchronized void registerGauge(String name, String help, LongSupplier value) {
+        gauges.put(name, value);
+        gaugeHelp.put(name, help);
+    }
+    
+    // READ - Latency histogram of an operation (nanoseconds)
+    public LatencyHistogram getLatency(Operation operation) {
+        return latencies[operation.ordinal()];
+    }
+    
+    // READ - Number of calls of an operation
+    public long getCount(Operation operation) {
+        return latencies[operation.ordinal()].getCount();
+    }
+    
+    // READ - Number of calls of an operation that failed or were rejected
+    public long getFailures(Operation operation) {
+        return failures[operation.ordinal()].sum();
+    }
+    
+    public long getCount(Counter counter) {
+        return counters[counter.ordinal()].sum();
+    }
+    
+    // READ - Current gauge values by name
+    public synchronized LinkedHashMap<String, Long> getGauges() {
+        LinkedHashMap<String, Long> values = new LinkedHashMap<>();
+        for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+            values.put(gauge.getKey(), gauge.getValue().getAsLong());
+        }
+        return values;
+    }
+    
+    // EXPORT - All metrics in the Prometheus text exposition format
+    public String toPrometheus() {
+        StringBuilder out = new StringBuilder(8192);
+        
+        String calls = PREFIX + "operations_total";
+        out.append("# HELP ").append(calls).append(" Operations by outcome\n");
+        out.append("# TYPE ").append(calls).append(" counter\n");
+        for (Operation operation : Operation.values()) {
+            long failed = getFailures(operation);
+            sample(out, calls, "operation=\"" + operation.getLabel() + "\",outcome=\"ok\"",
+                    getCount(operation) - failed);
+            sample(out, calls, "operation=\"" + operation.getLabel() + "\",outcome=\"failed\"", failed);
+        }
+        
+        String duration = PREFIX + "operation_duration_seconds";
+        out.append("# HELP ").append(duration).append(" Operation latency\n");
+        out.append("# TYPE ").append(duration).append(" summary\n");
+        for (Operation operation : Operation.values()) {
+            LatencyHistogram histogram = getLatency(operation);
+            String label = "operation=\"" + operation.getLabel() + "\"";
+            long[] values = histogram.getValuesAtQuantiles(QUANTILES);
+            for (int q = 0; q < QUANTILES.length; q++) {
+                sample(out, duration, label + ",quantile=\"" + QUANTILES[q] + "\"", values[q] / 1e9);
+            }
+            sample(out, duration + "_sum", label, histogram.getSum() / 1e9);
+            sample(out, duration + "_count", label, histogram.getCount());
+        }
+        
+        for (Counter counter : Counter.values()) {
+            String name = PREFIX + counter.getLabel() + "_total";
+            out.append("# TYPE ").append(name).append(" counter\n");
+            sample(out, name, null, getCount(counter));
+        }
+        
+        synchronized (this) {
+            for (Map.Entry<String, LongSupplier> gauge : gauges.entrySet()) {
+                String name = PREFIX + gauge.getKey();
+                out.append("# HELP ").append(name).append(' ').append(gaugeHelp.get(gauge.getKey())).append('\n');
+                out.append("# TYPE ").append(name).append(" gauge\n");
+                sample(out, name, null, gauge.getValue().getAsLong());
+            }
+        }
+        return out.toString();
+    }
+    
+    // EXPORT - Write the Prometheus text to a file (replaced atomically, so
+    // a node-exporter textfile collector never sees a partial file)
+    public void dump(String filename) throws IOException {
+        Path target = Paths.get(filename);
+        Path temp = Paths.get(filename + ".tmp");
+        Files.write(temp, toPrometheus().getBytes(StandardCharsets.UTF_8));
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // EXPORT - Serve GET /metrics on localhost:port (0 picks a free port);
+    // stop the returned server with stop(0)
+    public HttpServer startEndpoint(int port) throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 0);
+        server.createContext("/metrics", exchange -> {
+            byte[] body = toPrometheus().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+        return server;
+    }
+    
+    private static void sample(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (labels != null) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && Math.abs(value) < 1e15) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+}
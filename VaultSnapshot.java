@@ -0,0 +1,302 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CRC32;
+
+/**
+ * VaultSnapshot class storing a whole contact set in one binary file
+ * Layout (big-endian):
+ *   header      int magic, int version, long nextId, long generation,
+ *               int contacts, int domains, int blocks
+ *   dictionary  email domains, each a varint-length-prefixed UTF-8 string
+ *   block table per block: int byte length, int contact count
+ *   blocks      per contact: varint ID delta, name, phone, email local-part
+ *               (length-prefixed UTF-8), varint domain number (0 = no '@')
+ *   trailer     int CRC32 of everything before it
+ * Contacts were validated when they were stored, so loading only checks
+ * the CRC: the file is mapped, blocks are decoded in parallel and handed
+ * to the manager for a bulk restore without regex or duplicate checks.
+ */
+public class VaultSnapshot {
+    private static final int MAGIC = 0x4356534E; // "CVSN"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 36;
+    private static final int BLOCK_SIZE = 16384; // contacts per encoding/decoding task
+    
+    private final ArrayList<Contact> contacts;
+    private final long nextId;
+    private final long generation;
+    
+    private VaultSnapshot(ArrayList<Contact> contacts, long nextId, long generation) {
+        this.contacts = contacts;
+        this.nextId = nextId;
+        this.generation = generation;
+    }
+    
+    // Contacts in stored order, with their IDs already assigned
+    public ArrayList<Contact> getContacts() {
+        return contacts;
+    }
+    
+    // First ID the restored manager may hand out
+    public long getNextId() {
+        return nextId;
+    }
+    
+    // Journal generation the snapshot covers (0 for stand-alone snapshots)
+    public long getGeneration() {
+        return generation;
+    }
+    
+    // Write contacts (in ascending ID order) to a side file that atomically
+    // replaces filename once it is fully on disk
+    public static void write(Collection<Contact> contacts, long nextId, long generation, String filename)
+            throws IOException {
+        ArrayList<Contact> list = new ArrayList<>(contacts);
+        
+        // Domain dictionary in first-seen order; number 0 means "no domain"
+        HashMap<String, Integer> domainNumbers = new HashMap<>();
+        ByteSink dictionary = new ByteSink(4096);
+        for (Contact contact : list) {
+            String email = contact.getEmail();
+            int at = email.lastIndexOf('@');
+            if (at >= 0) {
+                String domain = email.substring(at + 1);
+                if (!domainNumbers.containsKey(domain)) {
+                    domainNumbers.put(domain, domainNumbers.size() + 1);
+                    dictionary.putString(domain);
+                }
+            }
+        }
+        
+        // Encode blocks in parallel; each one restarts the ID deltas at 0
+        ForkJoinPool pool = ForkJoinPool.commonPool();
+        ArrayList<ForkJoinTask<ByteSink>> tasks = new ArrayList<>();
+        for (int from = 0; from < list.size(); from += BLOCK_SIZE) {
+            int start = from;
+            int end = Math.min(list.size(), from + BLOCK_SIZE);
+            tasks.add(pool.submit(() -> encodeBlock(list, start, end, domainNumbers)));
+        }
+        
+        // Header, dictionary, block table, blocks, CRC of all of it
+        ByteBuffer[] buffers = new ByteBuffer[tasks.size() + 4];
+        buffers[0] = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putLong(nextId)
+                .putLong(generation).putInt(list.size()).putInt(domainNumbers.size()).putInt(tasks.size()).flip();
+        buffers[1] = dictionary.toBuffer();
+        ByteBuffer table = ByteBuffer.allocate(tasks.size() * 8);
+        buffers[2] = table;
+        for (int i = 0; i < tasks.size(); i++) {
+            buffers[i + 3] = tasks.get(i).join().toBuffer();
+            table.putInt(buffers[i + 3].remaining()).putInt(Math.min(BLOCK_SIZE, list.size() - i * BLOCK_SIZE));
+        }
+        table.flip();
+        
+        CRC32 crc = new CRC32();
+        for (int i = 0; i < buffers.length - 1; i++) {
+            crc.update(buffers[i].duplicate());
+        }
+        buffers[buffers.length - 1] = ByteBuffer.allocate(4).putInt(0, (int) crc.getValue());
+        
+        Path target = Paths.get(filename);
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long remaining = 0;
+            for (ByteBuffer buffer : buffers) {
+                remaining += buffer.remaining();
+            }
+            while (remaining > 0) {
+                remaining -= channel.write(buffers);
+            }
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    
+    // Map and decode a snapshot file
+    public static VaultSnapshot read(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot too large to map: " + filename);
+            }
+            if (size < HEADER_SIZE + 4) {
+                throw new IOException("Not a contact snapshot: " + filename);
+            }
+            MappedByteBuffer file = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(file, filename);
+        }
+    }
+    
+    private static VaultSnapshot decode(ByteBuffer file, String filename) throws IOException {
+        int end = file.limit() - 4;
+        if (file.getInt(0) != MAGIC) {
+            throw new IOException("Not a contact snapshot: " + filename);
+        }
+        if (file.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + file.getInt(4) + ": " + filename);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(file.duplicate().limit(end));
+        if ((int) crc.getValue() != file.getInt(end)) {
+            throw new IOException("Snapshot checksum mismatch: " + filename);
+        }
+        
+        try {
+            ByteBuffer in = file.duplicate().position(8);
+            long nextId = in.getLong();
+            long generation = in.getLong();
+            int contactCount = in.getInt();
+            String[] domains = new String[in.getInt() + 1];
+            int blockCount = in.getInt();
+            for (int i = 1; i < domains.length; i++) {
+                domains[i] = getString(in);
+            }
+            
+            // Decode blocks in parallel from their own slices of the mapping
+            ForkJoinPool pool = ForkJoinPool.commonPool();
+            ArrayList<ForkJoinTask<Contact[]>> tasks = new ArrayList<>();
+            int offset = in.position() + blockCount * 8;
+            for (int i = 0; i < blockCount; i++) {
+                int length = in.getInt();
+                int count = in.getInt();
+                ByteBuffer block = file.duplicate().position(offset).limit(offset + length).slice();
+                tasks.add(pool.submit(() -> decodeBlock(block, count, domains)));
+                offset += length;
+            }
+            if (offset != end) {
+                throw new IOException("Corrupt snapshot: " + filename);
+            }
+            
+            ArrayList<Contact> contacts = new ArrayList<>(contactCount);
+            for (ForkJoinTask<Contact[]> task : tasks) {
+                contacts.addAll(Arrays.asList(task.join()));
+            }
+            if (contacts.size() != contactCount) {
+                throw new IOException("Corrupt snapshot: " + filename);
+            }
+            return new VaultSnapshot(contacts, nextId, generation);
+            
+        } catch (BufferUnderflowException | IllegalArgumentException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Corrupt snapshot: " + filename, e);
+        }
+    }
+    
+    private static ByteSink encodeBlock(List<Contact> contacts, int from, int to,
+            Map<String, Integer> domainNumbers) {
+        ByteSink out = new ByteSink((to - from) * 48);
+        long previousId = 0;
+        for (int i = from; i < to; i++) {
+            Contact contact = contacts.get(i);
+            out.putVarLong(contact.getId() - previousId);
+            previousId = contact.getId();
+            out.putString(contact.getName());
+            out.putString(contact.getPhone());
+            
+            String email = contact.getEmail();
+            int at = email.lastIndexOf('@');
+            if (at >= 0) {
+                out.putString(email.substring(0, at));
+                out.putVarLong(domainNumbers.get(email.substring(at + 1)));
+            } else {
+                out.putString(email);
+                out.putVarLong(0);
+            }
+        }
+        return out;
+    }
+    
+    private static Contact[] decodeBlock(ByteBuffer mapped, int count, String[] domains) {
+        // One copy out of the mapping, then strings decode straight from the array
+        byte[] bytes = new byte[mapped.remaining()];
+        mapped.get(bytes);
+        ByteBuffer block = ByteBuffer.wrap(bytes);
+        
+        Contact[] contacts = new Contact[count];
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id += getVarLong(block);
+            String name = getString(block);
+            String phone = getString(block);
+            String local = getString(block);
+            int domain = (int) getVarLong(block);
+            
+            Contact contact = new Contact(name, phone, domain == 0 ? local : local + '@' + domains[domain]);
+            contact.setId(id);
+            contacts[i] = contact;
+        }
+        if (block.hasRemaining()) {
+            throw new IllegalArgumentException("Trailing bytes in snapshot block");
+        }
+        return contacts;
+    }
+    
+    private static long getVarLong(ByteBuffer in) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("Varint too long");
+    }
+    
+    private static String getString(ByteBuffer in) {
+        int length = (int) getVarLong(in);
+        if (in.hasArray()) {
+            String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+            return value;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+    
+    // Growable byte array for encoding
+    private static class ByteSink {
+        byte[] bytes;
+        int length;
+        
+        ByteSink(int capacity) {
+            bytes = new byte[Math.max(capacity, 64)];
+        }
+        
+        void putVarLong(long value) {
+            ensureCapacity(10);
+            while ((value & ~0x7FL) != 0) {
+                bytes[length++] = (byte) (value | 0x80);
+                value >>>= 7;
+            }
+            bytes[length++] = (byte) value;
+        }
+        
+        void putString(String value) {
+            byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+            putVarLong(utf8.length);
+            ensureCapacity(utf8.length);
+            System.arraycopy(utf8, 0, bytes, length, utf8.length);
+            length += utf8.length;
+        }
+        
+        ByteBuffer toBuffer() {
+            return ByteBuffer.wrap(bytes, 0, length);
+        }
+        
+        private void ensureCapacity(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,135 @@
+import java.util.*;
+
+/**
+ * VaultStatistics class keeping running aggregates over the stored contacts
+ * ContactManager adds and removes every contact as it is stored or dropped,
+ * so totals, valid/invalid email and phone counts and the country-code and
+ * name-initial histograms are always current and reading them needs no scan.
+ * getStatistics() hands out snapshots: copies that do not change afterwards
+ * and also carry the most common email domains.
+ */
+public class VaultStatistics {
+    // International calling codes shorter than three digits (ITU-T E.164)
+    private static final Set<String> SHORT_CALLING_CODES = new HashSet<>(Arrays.asList(
+        "1", "7", "20", "27", "30", "31", "32", "33", "34", "36", "39", "40", "41", "43", "44", "45",
+        "46", "47", "48", "49", "51", "52", "53", "54", "55", "56", "57", "58", "60", "61", "62", "63",
+        "64", "65", "66", "81", "82", "84", "86", "90", "91", "92", "93", "94", "95", "98"
+    ));
+    
+    // Histogram key for numbers written without a "+" country code
+    public static final String LOCAL = "local";
+    
+    private int total;
+    private int validEmails;
+    private int validPhones;
+    private final Map<String, Integer> countryCodes;
+    private final Map<Character, Integer> initials;
+    private final LinkedHashMap<String, Integer> topDomains;
+    private final int domainCount;
+    
+    VaultStatistics() {
+        this.countryCodes = new HashMap<>();
+        this.initials = new HashMap<>();
+        this.topDomains = new LinkedHashMap<>();
+        this.domainCount = 0;
+    }
+    
+    // Snapshot of live statistics plus the domain histogram
+    private VaultStatistics(VaultStatistics live, LinkedHashMap<String, Integer> topDomains, int domainCount) {
+        this.total = live.total;
+        this.validEmails = live.validEmails;
+        this.validPhones = live.validPhones;
+        this.countryCodes = Collections.unmodifiableSortedMap(new TreeMap<>(live.countryCodes));
+        this.initials = Collections.unmodifiableSortedMap(new TreeMap<>(live.initials));
+        this.topDomains = topDomains;
+        this.domainCount = domainCount;
+    }
+    
+    // Count a contact that was stored
+    void add(Contact contact) {
+        total++;
+        validEmails += contact.isValidEmail() ? 1 : 0;
+        validPhones += contact.isValidPhone() ? 1 : 0;
+        countryCodes.merge(countryCodeOf(contact), 1, Integer::sum);
+        initials.merge(initialOf(contact.getName()), 1, Integer::sum);
+    }
+    
+    // Stop counting a contact that was removed or replaced
+    void remove(Contact contact) {
+        total--;
+        validEmails -= contact.isValidEmail() ? 1 : 0;
+        validPhones -= contact.isValidPhone() ? 1 : 0;
+        decrement(countryCodes, countryCodeOf(contact));
+        decrement(initials, initialOf(contact.getName()));
+    }
+    
+    VaultStatistics snapshot(LinkedHashMap<String, Integer> topDomains, int domainCount) {
+        return new VaultStatistics(this, topDomains, domainCount);
+    }
+    
+    public int getTotal() {
+        return total;
+    }
+    
+    public int getValidEmails() {
+        return validEmails;
+    }
+    
+    public int getInvalidEmails() {
+        return total - validEmails;
+    }
+    
+    public int getValidPhones() {
+        return validPhones;
+    }
+    
+    public int getInvalidPhones() {
+        return total - validPhones;
+    }
+    
+    // Contacts per calling code ("+1", "+91", ... or LOCAL), in key order
+    public Map<String, Integer> getCountryCodes() {
+        return countryCodes;
+    }
+    
+    // Contacts per upper-cased first letter of the name ('#' if not a letter)
+    public Map<Character, Integer> getInitials() {
+        return initials;
+    }
+    
+    // Most common email domains with their contact counts
+    public LinkedHashMap<String, Integer> getTopDomains() {
+        return topDomains;
+    }
+    
+    // Number of distinct email domains
+    public int getDomainCount() {
+        return domainCount;
+    }
+    
+    // Calling code of a number written as "+<code>...", else LOCAL
+    static String countryCodeOf(Contact contact) {
+        if (!contact.getPhone().startsWith("+")) {
+            return LOCAL;
+        }
+        String digits = contact.getNormalizedPhone();
+        if (digits.isEmpty() || digits.charAt(0) < '0' || digits.charAt(0) > '9') {
+            return LOCAL;
+        }
+        for (int length = 1; length <= 2 && length < digits.length(); length++) {
+            if (SHORT_CALLING_CODES.contains(digits.substring(0, length))) {
+                return "+" + digits.substring(0, length);
+            }
+        }
+        return "+" + digits.substring(0, Math.min(3, digits.length()));
+    }
+    
+    static char initialOf(String name) {
+        char first = name.isEmpty() ? '#' : Character.toUpperCase(name.charAt(0));
+        return Character.isLetter(first) ? first : '#';
+    }
+    
+    private static <K> void decrement(Map<K, Integer> histogram, K key) {
+        histogram.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+}